@@ -0,0 +1,6 @@
+-- Index for the category filter of the chain-wide inventory listing (GET /api/inventory?category=):
+-- the matching products are found by index and their inventory rows through idx_inventory_product_id.
+-- Only needed for an existing MySQL database; with spring.jpa.hibernate.ddl-auto=create Hibernate
+-- creates it from the entity.
+
+CREATE INDEX idx_products_category ON products (category);
@@ -0,0 +1,28 @@
+-- Moves entity ids from AUTO_INCREMENT columns to the id_allocations table (see entity/IdAllocation).
+-- Only needed for an existing MySQL database; with spring.jpa.hibernate.ddl-auto=create Hibernate
+-- creates the table itself. Run it while the application is stopped.
+
+CREATE TABLE IF NOT EXISTS id_allocations (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+-- next_val is the upper end of the next block of 50 ids, so the first new id is MAX(id) + 1. This
+-- relies on hibernate.id.generator.stored_last_used=false, which JpaBatchingConfig sets
+INSERT INTO id_allocations (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 50 FROM users
+UNION ALL SELECT 'stores', COALESCE(MAX(id), 0) + 50 FROM stores
+UNION ALL SELECT 'products', COALESCE(MAX(id), 0) + 50 FROM products
+UNION ALL SELECT 'inventory', COALESCE(MAX(id), 0) + 50 FROM inventory
+UNION ALL SELECT 'sales_transactions', COALESCE(MAX(id), 0) + 50 FROM sales_transactions
+UNION ALL SELECT 'reorder_recommendations', COALESCE(MAX(id), 0) + 50 FROM reorder_recommendations
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+-- Ids are always supplied now; without AUTO_INCREMENT a writer that forgets one fails instead of
+-- taking an id from a block already handed out
+ALTER TABLE users MODIFY id BIGINT NOT NULL;
+ALTER TABLE stores MODIFY id BIGINT NOT NULL;
+ALTER TABLE products MODIFY id BIGINT NOT NULL;
+ALTER TABLE inventory MODIFY id BIGINT NOT NULL;
+ALTER TABLE sales_transactions MODIFY id BIGINT NOT NULL;
+ALTER TABLE reorder_recommendations MODIFY id BIGINT NOT NULL;
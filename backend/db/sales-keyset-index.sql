@@ -0,0 +1,7 @@
+-- Index for the keyset-paginated sales history (GET /api/sales/store/{storeId}): rows of a store in
+-- (transaction_date, id) order, so every page is one index seek. It also serves the date range queries
+-- of the old (store_id, transaction_date) index, which it replaces. Only needed for an existing MySQL
+-- database; with spring.jpa.hibernate.ddl-auto=create Hibernate creates it from the entity.
+
+CREATE INDEX idx_sales_transactions_store_date_id ON sales_transactions (store_id, transaction_date, id);
+DROP INDEX idx_sales_transactions_store_date ON sales_transactions;
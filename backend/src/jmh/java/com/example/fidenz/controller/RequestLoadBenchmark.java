@@ -0,0 +1,207 @@
+package com.example.fidenz.controller;
+
+import com.example.fidenz.FidenzApplication;
+import com.example.fidenz.entity.Role;
+import com.example.fidenz.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load on the running application, with requests handled on the Tomcat thread pool
+ * (threads=platform) or on virtual threads (threads=virtual). 256 concurrent clients (JMH threads,
+ * change with -t) record single sales and read pages of the chain-wide inventory listing.
+ * SampleTime gives the p50/p99 latency and Throughput the requests per millisecond, per mode and endpoint.
+ *
+ * The in-memory H2 database never blocks, so every statement is held dbLatencyMillis longer to stand in
+ * for the round trip to a networked database; that wait is what virtual threads free the request thread
+ * from. The virtual mode needs a Java 21 runtime; on Java 17 both modes run on the Tomcat pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class RequestLoadBenchmark {
+
+    // products added on top of data.sql, stocked in both stores, so concurrent sales rarely share a row
+    private static final int PRODUCTS = 500;
+    private static final long FIRST_PRODUCT_ID = 100_000;
+    private static final long[] STORE_IDS = {1L, 2L};
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"5"})
+    public int dbLatencyMillis;
+
+    @Param({"50"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String authorization;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(FidenzApplication.class, StatementLatency.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "benchmark.db-latency-millis=" + dbLatencyMillis,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.example.fidenz=WARN",
+                        "logging.level.org.springframework.security=WARN",
+                        "logging.level.org.springframework.web=WARN")
+                .run();
+        seedProducts(context.getBean(JdbcTemplate.class));
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+        authorization = "Bearer " + context.getBean(JwtUtil.class).generateToken("testmanager", Role.STORE_MANAGER);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int recordSale() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"productId\":" + (FIRST_PRODUCT_ID + random.nextInt(PRODUCTS)) +
+                ",\"storeId\":" + STORE_IDS[random.nextInt(STORE_IDS.length)] +
+                ",\"quantity\":1,\"unitPrice\":1.00}";
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/sales/transaction"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    @Benchmark
+    public int listInventory() throws Exception {
+        long storeId = STORE_IDS[ThreadLocalRandom.current().nextInt(STORE_IDS.length)];
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/inventory?storeId=" + storeId + "&size=50"))
+                .GET());
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<Void> response = client.send(request.header("Authorization", authorization).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Request failed with HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private static void seedProducts(JdbcTemplate jdbcTemplate) {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> inventory = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            long productId = FIRST_PRODUCT_ID + i;
+            products.add(new Object[]{productId, "Load product " + i, "Load", "LOAD" + i});
+            for (int s = 0; s < STORE_IDS.length; s++) {
+                inventory.add(new Object[]{FIRST_PRODUCT_ID + i * STORE_IDS.length + s, STORE_IDS[s], productId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, category, sku, unit_price, max_storage_qty, " +
+                "min_storage_qty) VALUES (?, ?, ?, ?, 1.00, 1000000000, 0)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO inventory (id, store_id, product_id, current_stock) " +
+                "VALUES (?, ?, ?, 1000000000)", inventory);
+    }
+
+    /**
+     * Wraps the DataSource so every statement execution first waits benchmark.db-latency-millis,
+     * the way {@code StatementCounter} in the tests counts them.
+     */
+    public static class StatementLatency implements BeanPostProcessor, EnvironmentAware {
+
+        private long latencyMillis;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            latencyMillis = environment.getProperty("benchmark.db-latency-millis", Long.class, 0L);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (latencyMillis > 0 && bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        return wrap(super.getConnection(), Connection.class);
+                    }
+
+                    @Override
+                    public Connection getConnection(String username, String password) throws SQLException {
+                        return wrap(super.getConnection(username, password), Connection.class);
+                    }
+                };
+            }
+            return bean;
+        }
+
+        private <T> T wrap(T target, Class<T> type) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    Thread.sleep(latencyMillis);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Statement
+                        && (method.getName().startsWith("prepare") || method.getName().equals("createStatement"))) {
+                    return wrapStatement(result, method.getReturnType());
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Object wrapStatement(Object statement, Class<T> type) {
+            return wrap((T) statement, type);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.entity.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time JwtRequestFilter adds to a request carrying a role token, the POS case. The baseline repeats the
+ * token handling of the previous JwtUtil: three parses per request, each with a newly built key and parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHmacSha256";
+
+    private final FilterChain chain = (request, response) -> { };
+
+    private String token;
+    private JwtRequestFilter singleParseFilter;
+    private JwtRequestFilter cachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, TimeUnit.HOURS.toMillis(1));
+        token = jwtUtil.generateToken("pos_system", Role.API_CLIENT);
+        UserRoleCache noRoleCache = new UserRoleCache(null, new SimpleMeterRegistry(), Duration.ZERO, 1);
+        singleParseFilter = new JwtRequestFilter(null, jwtUtil,
+                new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ZERO, 1), noRoleCache);
+        cachedFilter = new JwtRequestFilter(null, jwtUtil,
+                new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ofMinutes(1), 1000), noRoleCache);
+
+        request = new MockHttpServletRequest("POST", "/api/sales/transaction");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String reparsePerCall() {
+        String username = parse(token).getSubject();
+        String subject = parse(token).getSubject();
+        Date expiration = parse(token).getExpiration();
+        return username.equals(subject) && expiration.after(new Date()) ? username : null;
+    }
+
+    @Benchmark
+    public Authentication filterSingleParse() throws Exception {
+        return runFilter(singleParseFilter);
+    }
+
+    @Benchmark
+    public Authentication filterCachedToken() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    private Authentication runFilter(JwtRequestFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Java side of ABC analysis. Revenue is summed in SQL, so the input is one row per product;
+ * the dataset size sets how many products sold (one per 100 transactions).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class AbcAnalysisBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int transactions;
+
+    private AbcAnalysisService abcAnalysisService;
+    private List<Product> products;
+    private List<ProductRevenue> revenueRows;
+    private Map<Product, Long> revenueByProduct;
+    private List<Map.Entry<Product, Long>> sortedRevenue;
+    private long grandTotal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        abcAnalysisService = new AbcAnalysisService(null, null, null, null, null);
+        products = SyntheticSales.products(SyntheticSales.productCount(transactions));
+        revenueRows = SyntheticSales.revenueRows(SyntheticSales.transactions(transactions, products));
+        revenueByProduct = abcAnalysisService.aggregateRevenueByProduct(revenueRows, products);
+        sortedRevenue = abcAnalysisService.sortByRevenueDescending(revenueByProduct);
+        grandTotal = abcAnalysisService.calculateGrandTotal(revenueByProduct);
+    }
+
+    @Benchmark
+    public Map<Product, Long> aggregateRevenueByProduct() {
+        return abcAnalysisService.aggregateRevenueByProduct(revenueRows, products);
+    }
+
+    @Benchmark
+    public List<Map.Entry<Product, Long>> sortByRevenueDescending() {
+        return abcAnalysisService.sortByRevenueDescending(revenueByProduct);
+    }
+
+    @Benchmark
+    public List<AbcAnalysisResult> buildResults() {
+        return abcAnalysisService.buildResults(sortedRevenue, grandTotal);
+    }
+}
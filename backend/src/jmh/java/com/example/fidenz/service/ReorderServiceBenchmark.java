@@ -0,0 +1,62 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Java side of the reorder calculation. Sales are summarized per product in SQL, so the input is
+ * one inventory row and one 30-day summary per product; the dataset size sets how many products
+ * there are (one per 100 transactions).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ReorderServiceBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int transactions;
+
+    private ReorderService reorderService;
+    private List<Inventory> inventory;
+    private Map<Long, ProductSalesSummary> salesByProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reorderService = new ReorderService(null, null, null, null, null, null);
+        List<Product> products = SyntheticSales.products(SyntheticSales.productCount(transactions));
+        inventory = SyntheticSales.inventory(products);
+        salesByProduct = SyntheticSales.salesSummaries(SyntheticSales.transactions(transactions, products),
+                ReorderService.AVG_WINDOW_DAYS);
+    }
+
+    @Benchmark
+    public int calculateReorderRecommendations() {
+        int recommended = 0;
+        for (Inventory row : inventory) {
+            if (reorderService.calculateReorderRecommendation(row, salesByProduct.get(row.getProduct().getId())) != null) {
+                recommended++;
+            }
+        }
+        return recommended;
+    }
+}
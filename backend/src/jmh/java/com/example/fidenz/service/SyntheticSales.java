@@ -0,0 +1,128 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic sales data for the benchmarks. The same seed gives the same dataset on
+ * every run, so results of different commits are comparable.
+ */
+final class SyntheticSales {
+
+    static final long SEED = 42L;
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private SyntheticSales() {}
+
+    // One product per 100 transactions, at least one
+    static int productCount(int transactions) {
+        return Math.max(1, transactions / 100);
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + (i + 1));
+            product.setUnitPrice(BigDecimal.valueOf(50 + i % 5000, 2));
+            product.setMinStorageQty(10);
+            product.setMaxStorageQty(500);
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Transactions spread over the last 365 days with a skewed product popularity, so a few products
+     * carry most of the revenue as in a real ABC distribution.
+     */
+    static List<SalesTransaction> transactions(int count, List<Product> products) {
+        Random random = new Random(SEED);
+        Store store = new Store();
+        store.setId(1L);
+
+        List<SalesTransaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // squaring a uniform value favours low indexes
+            double skew = random.nextDouble();
+            Product product = products.get((int) (skew * skew * products.size()));
+            int quantity = 1 + random.nextInt(10);
+
+            SalesTransaction transaction = new SalesTransaction();
+            transaction.setId((long) i + 1);
+            transaction.setProduct(product);
+            transaction.setStore(store);
+            transaction.setQuantity(quantity);
+            transaction.setUnitPrice(product.getUnitPrice());
+            transaction.setTotalAmount(product.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
+            transaction.setTransactionDate(NOW.minusMinutes(random.nextInt(365 * 24 * 60)));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    // What SalesTransactionRepository.sumRevenueByProduct returns for the transactions
+    static List<ProductRevenue> revenueRows(List<SalesTransaction> transactions) {
+        Map<Long, BigDecimal> revenueById = new HashMap<>();
+        for (SalesTransaction transaction : transactions) {
+            revenueById.merge(transaction.getProduct().getId(), transaction.getTotalAmount(), BigDecimal::add);
+        }
+        List<ProductRevenue> rows = new ArrayList<>(revenueById.size());
+        revenueById.forEach((productId, revenue) -> rows.add(new ProductRevenue(productId, revenue)));
+        return rows;
+    }
+
+    // What SalesTransactionRepository.summarizeSalesByProduct returns for the transactions of the last days
+    static Map<Long, ProductSalesSummary> salesSummaries(List<SalesTransaction> transactions, int days) {
+        LocalDateTime start = NOW.minusDays(days);
+        Map<Long, long[]> totalsById = new HashMap<>();
+        for (SalesTransaction transaction : transactions) {
+            if (transaction.getTransactionDate().isBefore(start)) {
+                continue;
+            }
+            // quantity, transactions, weekday transactions
+            long[] totals = totalsById.computeIfAbsent(transaction.getProduct().getId(), id -> new long[3]);
+            totals[0] += transaction.getQuantity();
+            totals[1]++;
+            DayOfWeek day = transaction.getTransactionDate().getDayOfWeek();
+            if (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY) {
+                totals[2]++;
+            }
+        }
+        Map<Long, ProductSalesSummary> summaries = new HashMap<>();
+        totalsById.forEach((productId, totals) ->
+                summaries.put(productId, new ProductSalesSummary(productId, totals[0], totals[1], totals[2])));
+        return summaries;
+    }
+
+    // One inventory row per product in store 1, with stock spread between 0 and the maximum
+    static List<Inventory> inventory(List<Product> products) {
+        Random random = new Random(SEED);
+        Store store = new Store();
+        store.setId(1L);
+        List<Inventory> inventory = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Inventory row = new Inventory();
+            row.setId(product.getId());
+            row.setProduct(product);
+            row.setStore(store);
+            row.setCurrentStock(random.nextInt(product.getMaxStorageQty() + 1));
+            inventory.add(row);
+        }
+        return inventory;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.fidenz.config;
+
+import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the daily sales rollup from the full sales history, one store per transaction.
+ * Runs after data seeding when the application is started with
+ * {@code --analytics.rollup.backfill=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.rollup.backfill", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SalesRollupBackfillRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupBackfillRunner.class);
+
+    private final StoreRepository storeRepository;
+    private final SalesRollupService salesRollupService;
+
+    public SalesRollupBackfillRunner(StoreRepository storeRepository, SalesRollupService salesRollupService) {
+        this.storeRepository = storeRepository;
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Override
+    public void run(String... args) {
+        log.info("Starting sales rollup backfill...");
+
+        int rows = 0;
+        for (Long storeId : storeRepository.findAllIds()) {
+            rows += salesRollupService.backfillStore(storeId);
+        }
+
+        log.info("Sales rollup backfill completed: {} rows", rows);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.fidenz.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs. Every job reads its schedule from configuration
+ * and stays idle unless one is set.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
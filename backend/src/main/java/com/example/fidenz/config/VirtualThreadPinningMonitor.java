@@ -0,0 +1,98 @@
+package com.example.fidenz.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread (inside a synchronized block
+ * or a native frame), which takes the carrier away from every other virtual thread meanwhile. Pins
+ * longer than the threshold are read from the JDK's jdk.VirtualThreadPinned flight recorder event,
+ * counted and logged with the top of their stack. Also logs the connection pool that bounds concurrent
+ * database work once requests run on virtual threads.
+ *
+ * Metric: virtual.threads.pinned (pins longer than virtual-threads.pinning.threshold).
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 6;
+
+    private final DataSource dataSource;
+    private final Duration threshold;
+    private final Counter pinned;
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(DataSource dataSource, MeterRegistry meterRegistry, Duration threshold) {
+        this.dataSource = dataSource;
+        this.threshold = threshold;
+        this.pinned = Counter.builder("virtual.threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        logPoolSizing();
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        log.warn("Virtual thread pinned to its carrier for {} ms at {}", event.getDuration().toMillis(),
+                topFrames(event.getStackTrace()));
+    }
+
+    private void logPoolSizing() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                log.info("Requests run on virtual threads; concurrent database work is bounded by the connection " +
+                                "pool (maximum-pool-size={}, connection-timeout={} ms), pins over {} ms are reported",
+                        hikari.getMaximumPoolSize(), hikari.getConnectionTimeout(), threshold.toMillis());
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool settings: {}", e.getMessage());
+        }
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
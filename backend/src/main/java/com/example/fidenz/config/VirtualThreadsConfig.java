@@ -0,0 +1,84 @@
+package com.example.fidenz.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Opt-in request handling on virtual threads (spring.threads.virtual.enabled=true on a Java 21 runtime).
+ * Boot then serves Tomcat requests and runs @Scheduled work on virtual threads; service calls and their
+ * transactions run on the request thread, so they do too. Requests waiting on JDBC no longer hold a
+ * platform thread, and the Hikari pool becomes what bounds concurrent database work. In this mode:
+ * <ul>
+ *   <li>the Hikari connection-timeout defaults to 5s instead of 30s, so an overload is refused quickly
+ *       instead of parking every waiting request; spring.datasource.hikari.connection-timeout still wins</li>
+ *   <li>the Hikari maximum-pool-size defaults to twice the available processors plus one (at least 10,
+ *       Hikari's own default), a starting point for a database on similar hardware, since nothing else limits
+ *       concurrent database work any more; spring.datasource.hikari.maximum-pool-size still wins and should be
+ *       set from the database's capacity</li>
+ *   <li>virtual threads pinned to their carrier longer than virtual-threads.pinning.threshold are
+ *       counted and logged (see {@link VirtualThreadPinningMonitor})</li>
+ * </ul>
+ * On Java 17 Boot ignores the property and requests stay on the Tomcat thread pool; a warning says so.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofSeconds(5);
+
+    static int defaultMaximumPoolSize(int availableProcessors) {
+        return Math.max(10, 2 * availableProcessors + 1);
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    static BeanPostProcessor hikariVirtualThreadDefaults(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+                if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                    dataSource.setConnectionTimeout(DEFAULT_CONNECTION_TIMEOUT.toMillis());
+                }
+                if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    dataSource.setMaximumPoolSize(defaultMaximumPoolSize(Runtime.getRuntime().availableProcessors()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            DataSource dataSource, MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinning.threshold:PT0.02S}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(dataSource, meterRegistry, threshold);
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ApplicationListener<ApplicationReadyEvent> virtualThreadsUnavailableWarning() {
+        return event -> log.warn("spring.threads.virtual.enabled is set, but virtual threads need Java 21 " +
+                "(running {}); requests stay on the Tomcat thread pool", Runtime.version());
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.fidenz.controller;
 
 import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.dto.ReorderBatchReport;
 import com.example.fidenz.dto.ReorderRecommendationMapper;
 import com.example.fidenz.dto.ReorderRecommendationResponse;
+import com.example.fidenz.dto.ReorderSnapshot;
 import com.example.fidenz.entity.ReorderRecommendation;
 import com.example.fidenz.service.AbcAnalysisService;
+import com.example.fidenz.service.ReorderBatchJob;
 import com.example.fidenz.service.ReorderService;
+import com.example.fidenz.service.ReorderSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,24 +26,36 @@ import java.util.Map;
 @Tag(name = "Algorithms", description = "Smart algorithms for inventory management")
 public class AlgorithmController {
 
+    static final String SNAPSHOT_VERSION_HEADER = "X-Snapshot-Version";
+    static final String SNAPSHOT_COMPUTED_AT_HEADER = "X-Snapshot-Computed-At";
+
     private final ReorderService reorderService;
     private final AbcAnalysisService abcAnalysisService;
+    private final ReorderBatchJob reorderBatchJob;
+    private final ReorderSnapshotService reorderSnapshotService;
 
-    public AlgorithmController(ReorderService reorderService, AbcAnalysisService abcAnalysisService) {
+    public AlgorithmController(ReorderService reorderService, AbcAnalysisService abcAnalysisService,
+                               ReorderBatchJob reorderBatchJob, ReorderSnapshotService reorderSnapshotService) {
         this.reorderService = reorderService;
         this.abcAnalysisService = abcAnalysisService;
+        this.reorderBatchJob = reorderBatchJob;
+        this.reorderSnapshotService = reorderSnapshotService;
     }
 
     @GetMapping("/reorder-recommendations/{storeId}")
     @PreAuthorize("hasRole('STORE_MANAGER')")
-    @Operation(summary = "Generate reorder recommendations", 
-               description = "Generate smart reorder recommendations for a specific store based on sales history and seasonality")
-    @ApiResponse(responseCode = "200", description = "Reorder recommendations generated successfully")
+    @Operation(summary = "Get reorder recommendations", 
+               description = "Serve the latest precomputed reorder recommendations for a store; recomputed from sales history and seasonality when stale or when refresh=true")
+    @ApiResponse(responseCode = "200", description = "Reorder recommendations retrieved successfully")
     @ApiResponse(responseCode = "403", description = "Access denied - Store Manager role required")
-    public ResponseEntity<List<ReorderRecommendationResponse>> generateReorderRecommendations(@PathVariable Long storeId) {
-        List<ReorderRecommendation> recommendations = reorderService.generateReorderSuggestions(storeId);
-        List<ReorderRecommendationResponse> response = ReorderRecommendationMapper.toResponseList(recommendations);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<ReorderRecommendationResponse>> generateReorderRecommendations(
+            @PathVariable Long storeId,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        ReorderSnapshot snapshot = reorderSnapshotService.getSnapshot(storeId, refresh);
+        return ResponseEntity.ok()
+                .header(SNAPSHOT_VERSION_HEADER, String.valueOf(snapshot.version()))
+                .header(SNAPSHOT_COMPUTED_AT_HEADER, snapshot.computedAt().toString())
+                .body(snapshot.recommendations());
     }
 
     @GetMapping("/reorder-recommendations/{storeId}/pending")
@@ -64,6 +81,33 @@ public class AlgorithmController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/reorder-recommendations/batch")
+    @PreAuthorize("hasRole('STORE_MANAGER')")
+    @Operation(summary = "Run chain-wide reorder generation", 
+               description = "Start reorder generation for every store in parallel; poll the latest report for the outcome")
+    @ApiResponse(responseCode = "202", description = "Batch run started")
+    @ApiResponse(responseCode = "409", description = "A batch run is already in progress")
+    @ApiResponse(responseCode = "403", description = "Access denied - Store Manager role required")
+    public ResponseEntity<Void> runReorderBatch() {
+        if (!reorderBatchJob.triggerAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/reorder-recommendations/batch/latest")
+    @PreAuthorize("hasRole('STORE_MANAGER')")
+    @Operation(summary = "Get latest batch report", 
+               description = "Per-store outcome and timing of the most recent chain-wide reorder run")
+    @ApiResponse(responseCode = "200", description = "Latest batch report retrieved successfully")
+    @ApiResponse(responseCode = "204", description = "No batch run has completed yet")
+    @ApiResponse(responseCode = "403", description = "Access denied - Store Manager role required")
+    public ResponseEntity<ReorderBatchReport> getLatestReorderBatchReport() {
+        return reorderBatchJob.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
     @GetMapping("/abc-analysis/{storeId}")
     @PreAuthorize("hasRole('STORE_MANAGER')")
     @Operation(summary = "Perform ABC analysis", 
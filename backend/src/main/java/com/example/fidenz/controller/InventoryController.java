@@ -1,14 +1,25 @@
 package com.example.fidenz.controller;
 
+import com.example.fidenz.dto.InventoryAdjustmentBatchRequest;
+import com.example.fidenz.dto.InventoryAdjustmentResponse;
 import com.example.fidenz.dto.InventoryMapper;
 import com.example.fidenz.dto.InventoryResponse;
+import com.example.fidenz.dto.LowStockItem;
+import com.example.fidenz.dto.OffsetPage;
 import com.example.fidenz.entity.Inventory;
 import com.example.fidenz.service.InventoryService;
+import com.example.fidenz.service.InventorySnapshotCache;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,20 +35,62 @@ public class InventoryController {
     }
 
     @GetMapping("/{storeId}")
-    @Operation(summary = "Get inventory by store", description = "Retrieve inventory for a specific store")
-    @ApiResponse(responseCode = "200", description = "Inventory retrieved successfully")
-    public ResponseEntity<List<InventoryResponse>> getInventoryByStore(@PathVariable Long storeId) {
-        List<Inventory> inventory = inventoryService.getInventoryByStore(storeId);
-        List<InventoryResponse> response = InventoryMapper.toResponseList(inventory);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get inventory by store",
+               description = "Retrieve inventory for a specific store. Responses carry an ETag that changes with " +
+                             "every stock change of the store; send it as If-None-Match to get 304 while unchanged")
+    @ApiResponse(responseCode = "200", description = "Inventory retrieved successfully",
+                 content = @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = InventoryResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Inventory unchanged since the given ETag")
+    public ResponseEntity<byte[]> getInventoryByStore(@PathVariable Long storeId, WebRequest request) {
+        // Answered from the in-memory version, without reading the inventory
+        if (request.checkNotModified(inventoryService.getInventoryEtag(storeId))) {
+            return null;
+        }
+        InventorySnapshotCache.Snapshot snapshot = inventoryService.getInventorySnapshot(storeId);
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
+    }
+
+    @GetMapping("/{storeId}/low-stock")
+    @Operation(summary = "Get low-stock items of a store",
+               description = "Products whose stock in the store is below their minimum storage quantity, " +
+                             "furthest below first, at most limit of them")
+    @ApiResponse(responseCode = "200", description = "Low-stock items retrieved successfully")
+    public ResponseEntity<List<LowStockItem>> getLowStockItems(
+            @PathVariable Long storeId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(inventoryService.getLowStockItems(storeId, limit));
     }
 
     @GetMapping
-    @Operation(summary = "Get all inventories", description = "Retrieve all inventory records")
-    @ApiResponse(responseCode = "200", description = "All inventories retrieved successfully")
-    public ResponseEntity<List<InventoryResponse>> getAllInventories() {
-        List<Inventory> inventories = inventoryService.getAllInventories();
-        List<InventoryResponse> response = InventoryMapper.toResponseList(inventories);
+    @Operation(summary = "Get all inventories",
+               description = "Retrieve inventory records across all stores, one page at a time, optionally filtered " +
+                             "by store, product category or stock below the product minimum. Pass count=true to " +
+                             "also get the total number of matching records")
+    @ApiResponse(responseCode = "200", description = "Inventory page retrieved successfully")
+    public ResponseEntity<OffsetPage<InventoryResponse>> getAllInventories(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(required = false) Long storeId,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean lowStock,
+            @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(inventoryService.getInventoryPage(storeId, category, lowStock, page, size, count));
+    }
+
+    @PostMapping("/adjustments")
+    @Operation(summary = "Adjust inventory in bulk",
+               description = "Apply many stock adjustments at once, e.g. a store recount or a goods receipt. Each line " +
+                             "names the row by inventoryId or by storeId and sku, and sets newStock or adds delta. " +
+                             "Each line is applied or rejected on its own; rejected lines do not affect the others")
+    @ApiResponse(responseCode = "200", description = "Batch processed, see the per-line results")
+    @ApiResponse(responseCode = "400", description = "Empty batch or more adjustments than allowed in one batch")
+    public ResponseEntity<InventoryAdjustmentResponse> adjustInventory(
+            @Valid @RequestBody InventoryAdjustmentBatchRequest request) {
+        InventoryAdjustmentResponse response = inventoryService.adjustInventory(request.adjustments());
         return ResponseEntity.ok(response);
     }
 
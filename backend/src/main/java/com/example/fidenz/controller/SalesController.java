@@ -1,16 +1,23 @@
 package com.example.fidenz.controller;
 
+import com.example.fidenz.dto.CursorPage;
+import com.example.fidenz.dto.SalesBatchRequest;
+import com.example.fidenz.dto.SalesBatchResponse;
+import com.example.fidenz.dto.SalesTransactionMapper;
 import com.example.fidenz.dto.SalesTransactionRequest;
+import com.example.fidenz.dto.SalesTransactionResponse;
 import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.service.SalesExportService;
 import com.example.fidenz.service.SalesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/sales")
@@ -18,35 +25,80 @@ import java.util.List;
 public class SalesController {
 
     private final SalesService salesService;
+    private final SalesExportService salesExportService;
 
-    public SalesController(SalesService salesService) {
+    public SalesController(SalesService salesService, SalesExportService salesExportService) {
         this.salesService = salesService;
+        this.salesExportService = salesExportService;
     }
 
     @PostMapping("/transaction")
     @Operation(summary = "Record a new sale", description = "Record a new sales transaction and update inventory")
     @ApiResponse(responseCode = "200", description = "Sale recorded successfully")
     @ApiResponse(responseCode = "400", description = "Invalid request or insufficient stock")
-    public ResponseEntity<SalesTransaction> recordSale(@Valid @RequestBody SalesTransactionRequest request) {
+    public ResponseEntity<SalesTransactionResponse> recordSale(@Valid @RequestBody SalesTransactionRequest request) {
         SalesTransaction transaction = salesService.recordSale(request);
-        return ResponseEntity.ok(transaction);
+        return ResponseEntity.ok(SalesTransactionMapper.toResponse(transaction));
+    }
+
+    @PostMapping("/transactions/batch")
+    @Operation(summary = "Record sales in bulk",
+               description = "Record many sales at once, e.g. a POS end-of-day sync. Each line is accepted or " +
+                             "rejected on its own; rejected lines do not affect the others")
+    @ApiResponse(responseCode = "200", description = "Batch processed, see the per-line results")
+    @ApiResponse(responseCode = "400", description = "Empty batch or more sales than allowed in one batch")
+    public ResponseEntity<SalesBatchResponse> recordSales(@Valid @RequestBody SalesBatchRequest request) {
+        SalesBatchResponse response = salesService.recordSales(request.transactions());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/store/{storeId}")
-    @Operation(summary = "Get sales by store", description = "Retrieve all sales transactions for a specific store")
+    @Operation(summary = "Get sales by store",
+               description = "Retrieve a store's sales transactions newest first, one page at a time. " +
+                             "Pass the returned nextCursor as cursor to get the next page")
     @ApiResponse(responseCode = "200", description = "Sales retrieved successfully")
-    public ResponseEntity<List<SalesTransaction>> getSalesByStore(@PathVariable Long storeId) {
-        List<SalesTransaction> sales = salesService.getSalesByStore(storeId);
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    public ResponseEntity<CursorPage<SalesTransactionResponse>> getSalesByStore(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPage<SalesTransactionResponse> sales = salesService.getSalesByStore(storeId, cursor, size);
         return ResponseEntity.ok(sales);
     }
 
     @GetMapping("/store/{storeId}/recent/{days}")
-    @Operation(summary = "Get recent sales by store", description = "Retrieve recent sales transactions for a specific store")
+    @Operation(summary = "Get recent sales by store",
+               description = "Retrieve a store's sales transactions of the last days newest first, one page at a time")
     @ApiResponse(responseCode = "200", description = "Recent sales retrieved successfully")
-    public ResponseEntity<List<SalesTransaction>> getRecentSalesByStore(
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    public ResponseEntity<CursorPage<SalesTransactionResponse>> getRecentSalesByStore(
             @PathVariable Long storeId, 
-            @PathVariable int days) {
-        List<SalesTransaction> sales = salesService.getRecentSalesByStore(storeId, days);
+            @PathVariable int days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPage<SalesTransactionResponse> sales = salesService.getRecentSalesByStore(storeId, days, cursor, size);
         return ResponseEntity.ok(sales);
     }
+
+    @GetMapping("/store/{storeId}/export")
+    @Operation(summary = "Export sales by store",
+               description = "Stream a store's full sales history, oldest first, as NDJSON (one sale per line) " +
+                             "or CSV. Rows are written as they are read, so exports of any size use constant memory")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    @ApiResponse(responseCode = "400", description = "Unsupported format")
+    @ApiResponse(responseCode = "404", description = "Store not found")
+    public ResponseEntity<StreamingResponseBody> exportSalesByStore(
+            @PathVariable Long storeId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        SalesExportService.Format exportFormat = SalesExportService.Format.parse(format);
+        salesExportService.validateStore(storeId);
+
+        // Written on the MVC async executor (Boot's applicationTaskExecutor), not the request thread
+        StreamingResponseBody body = out -> salesExportService.export(storeId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales-store-" + storeId + "."
+                        + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
 }
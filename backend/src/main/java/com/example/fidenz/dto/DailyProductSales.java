@@ -0,0 +1,15 @@
+package com.example.fidenz.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of one product in a store on one calendar day, aggregated from raw transactions.
+ */
+public record DailyProductSales(
+    Long productId,
+    LocalDate salesDate,
+    Long quantity,
+    BigDecimal revenue,
+    Long transactionCount
+) {}
@@ -0,0 +1,14 @@
+package com.example.fidenz.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Stock adjustments posted together, e.g. a store recount or a goods receipt. Lines are validated one
+ * by one by the service, so a bad line is reported in the response instead of rejecting the whole batch.
+ */
+public record InventoryAdjustmentBatchRequest(
+    @NotEmpty
+    List<InventoryAdjustmentRequest> adjustments
+) {}
@@ -0,0 +1,21 @@
+package com.example.fidenz.dto;
+
+/**
+ * Outcome of one line of an inventory adjustment batch; index is the position of the line in the request.
+ */
+public record InventoryAdjustmentLineResult(
+    int index,
+    boolean success,
+    Long inventoryId,
+    Integer currentStock,
+    String error
+) {
+
+    public static InventoryAdjustmentLineResult applied(int index, Long inventoryId, int currentStock) {
+        return new InventoryAdjustmentLineResult(index, true, inventoryId, currentStock, null);
+    }
+
+    public static InventoryAdjustmentLineResult rejected(int index, String error) {
+        return new InventoryAdjustmentLineResult(index, false, null, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.fidenz.dto;
+
+/**
+ * One line of a bulk inventory adjustment. The row is given either by inventoryId or by storeId and
+ * the product sku; the stock either as an absolute newStock (a stock count) or as a delta (a delivery
+ * or write-off). The service checks the combination line by line.
+ */
+public record InventoryAdjustmentRequest(
+    Long inventoryId,
+    Long storeId,
+    String sku,
+    Integer newStock,
+    Integer delta
+) {}
@@ -0,0 +1,13 @@
+package com.example.fidenz.dto;
+
+import java.util.List;
+
+/**
+ * Result of an inventory adjustment batch: applied lines are written, rejected lines change nothing.
+ */
+public record InventoryAdjustmentResponse(
+    int received,
+    int applied,
+    int rejected,
+    List<InventoryAdjustmentLineResult> results
+) {}
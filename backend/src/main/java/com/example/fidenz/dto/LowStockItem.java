@@ -0,0 +1,22 @@
+package com.example.fidenz.dto;
+
+/**
+ * A product whose stock in a store is below its minimum storage quantity; shortfall is how many
+ * units below the minimum it is.
+ */
+public record LowStockItem(
+    Long storeId,
+    Long productId,
+    String productName,
+    String productSku,
+    Integer currentStock,
+    Integer minStorageQty,
+    Integer shortfall
+) {
+
+    // Constructor expression of the low-stock queries
+    public LowStockItem(Long storeId, Long productId, String productName, String productSku,
+                        Integer currentStock, Integer minStorageQty) {
+        this(storeId, productId, productName, productSku, currentStock, minStorageQty, minStorageQty - currentStock);
+    }
+}
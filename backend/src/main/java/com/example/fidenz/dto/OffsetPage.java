@@ -0,0 +1,15 @@
+package com.example.fidenz.dto;
+
+import java.util.List;
+
+/**
+ * One page of a page-numbered listing. totalElements is only filled in when the caller asked for the
+ * count; otherwise hasNext alone tells whether page + 1 exists.
+ */
+public record OffsetPage<T>(
+    List<T> items,
+    int page,
+    int size,
+    boolean hasNext,
+    Long totalElements
+) {}
@@ -0,0 +1,11 @@
+package com.example.fidenz.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Total revenue of one product in a store over a time window, computed in SQL.
+ */
+public record ProductRevenue(
+    Long productId,
+    BigDecimal revenue
+) {}
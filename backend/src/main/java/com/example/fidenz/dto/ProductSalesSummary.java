@@ -0,0 +1,17 @@
+package com.example.fidenz.dto;
+
+/**
+ * Per-product sales aggregate for a store over a time window, computed in SQL.
+ * weekdayCount counts transactions made Monday to Friday; the rest are weekend transactions.
+ */
+public record ProductSalesSummary(
+    Long productId,
+    Long totalQuantity,
+    Long transactionCount,
+    Long weekdayCount
+) {
+
+    public long weekendCount() {
+        return transactionCount - weekdayCount;
+    }
+}
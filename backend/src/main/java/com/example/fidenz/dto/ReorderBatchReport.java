@@ -0,0 +1,18 @@
+package com.example.fidenz.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of a chain-wide reorder run, with one result per store.
+ */
+public record ReorderBatchReport(
+    LocalDateTime startedAt,
+    long durationMillis,
+    int parallelism,
+    int storeCount,
+    int succeeded,
+    int failed,
+    int recommendationCount,
+    List<StoreReorderResult> stores
+) {}
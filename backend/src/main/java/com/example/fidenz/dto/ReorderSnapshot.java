@@ -0,0 +1,15 @@
+package com.example.fidenz.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Precomputed reorder recommendations of one store. The version increases with every
+ * recompute of that store.
+ */
+public record ReorderSnapshot(
+    Long storeId,
+    long version,
+    LocalDateTime computedAt,
+    List<ReorderRecommendationResponse> recommendations
+) {}
@@ -0,0 +1,21 @@
+package com.example.fidenz.dto;
+
+/**
+ * Outcome of one line of a sales batch; index is the position of the line in the request.
+ */
+public record SalesBatchLineResult(
+    int index,
+    boolean success,
+    Long transactionId,
+    Integer remainingStock,
+    String error
+) {
+
+    public static SalesBatchLineResult accepted(int index, Long transactionId, int remainingStock) {
+        return new SalesBatchLineResult(index, true, transactionId, remainingStock, null);
+    }
+
+    public static SalesBatchLineResult rejected(int index, String error) {
+        return new SalesBatchLineResult(index, false, null, null, error);
+    }
+}
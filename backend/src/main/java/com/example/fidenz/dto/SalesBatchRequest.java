@@ -0,0 +1,14 @@
+package com.example.fidenz.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Sales posted together by a POS system. Lines are validated one by one by the service,
+ * so a bad line is reported in the response instead of rejecting the whole batch.
+ */
+public record SalesBatchRequest(
+    @NotEmpty
+    List<SalesTransactionRequest> transactions
+) {}
@@ -0,0 +1,13 @@
+package com.example.fidenz.dto;
+
+import java.util.List;
+
+/**
+ * Result of a sales batch: accepted lines are recorded, rejected lines change nothing.
+ */
+public record SalesBatchResponse(
+    int received,
+    int accepted,
+    int rejected,
+    List<SalesBatchLineResult> results
+) {}
@@ -0,0 +1,35 @@
+package com.example.fidenz.dto;
+
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+
+/**
+ * Mapper utility to convert SalesTransaction entities to DTOs
+ */
+public class SalesTransactionMapper {
+
+    public static SalesTransactionResponse toResponse(SalesTransaction transaction) {
+        if (transaction == null) {
+            return null;
+        }
+
+        Product product = transaction.getProduct();
+        Store store = transaction.getStore();
+        return new SalesTransactionResponse(
+            transaction.getId(),
+            product != null ? product.getId() : null,
+            product != null ? product.getName() : null,
+            product != null ? product.getSku() : null,
+            product != null ? product.getCategory() : null,
+            store != null ? store.getId() : null,
+            store != null ? store.getName() : null,
+            store != null ? store.getLocation() : null,
+            transaction.getQuantity(),
+            transaction.getUnitPrice(),
+            transaction.getTotalAmount(),
+            transaction.getTransactionDate(),
+            transaction.getCreatedAt()
+        );
+    }
+}
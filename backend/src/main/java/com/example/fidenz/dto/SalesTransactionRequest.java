@@ -17,5 +17,6 @@ public record SalesTransactionRequest(
     Integer quantity,
     
     @NotNull
+    @Positive
     BigDecimal unitPrice
 ) {}
@@ -0,0 +1,36 @@
+package com.example.fidenz.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for sales transaction responses - plain values only, so serializing it cannot load anything.
+ * Product and store are nested to keep the product.id / store.id shape of the former entity responses.
+ */
+public record SalesTransactionResponse(
+    Long id,
+    ProductRef product,
+    StoreRef store,
+    Integer quantity,
+    BigDecimal unitPrice,
+    BigDecimal totalAmount,
+    LocalDateTime transactionDate,
+    LocalDateTime createdAt
+) {
+
+    public record ProductRef(Long id, String name, String sku, String category) {}
+
+    public record StoreRef(Long id, String name, String location) {}
+
+    // Flat form for JPQL constructor expressions, which cannot build the nested records themselves
+    public SalesTransactionResponse(Long id,
+                                    Long productId, String productName, String productSku, String productCategory,
+                                    Long storeId, String storeName, String storeLocation,
+                                    Integer quantity, BigDecimal unitPrice, BigDecimal totalAmount,
+                                    LocalDateTime transactionDate, LocalDateTime createdAt) {
+        this(id,
+             new ProductRef(productId, productName, productSku, productCategory),
+             new StoreRef(storeId, storeName, storeLocation),
+             quantity, unitPrice, totalAmount, transactionDate, createdAt);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.fidenz.dto;
+
+/**
+ * Outcome of the reorder run for a single store within a chain-wide batch.
+ */
+public record StoreReorderResult(
+    Long storeId,
+    boolean success,
+    int recommendationCount,
+    long durationMillis,
+    String error
+) {
+
+    public static StoreReorderResult succeeded(Long storeId, int recommendationCount, long durationMillis) {
+        return new StoreReorderResult(storeId, true, recommendationCount, durationMillis, null);
+    }
+
+    public static StoreReorderResult failed(Long storeId, long durationMillis, String error) {
+        return new StoreReorderResult(storeId, false, 0, durationMillis, error);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fidenz.entity;
+
+import jakarta.persistence.*;
+import jakarta.persistence.Index;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-day sales totals for a product in a store, kept up to date on every recorded sale.
+ * Analytics read at most one row per product and day from here instead of every transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_sales_rollups",
+       indexes = {
+           @Index(name = "idx_rollup_store_date", columnList = "store_id, sales_date")
+       })
+public class DailySalesRollup implements Persistable<DailySalesRollupId> {
+
+    @EmbeddedId
+    private DailySalesRollupId id;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    // true for Monday to Friday
+    @Column(nullable = false)
+    private Boolean weekday;
+
+    // Sales reach existing rows through SalesRollupService's upsert, not through JPA; the backfill only saves
+    // rows it has just deleted, so saveAll can persist without a lookup per row
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
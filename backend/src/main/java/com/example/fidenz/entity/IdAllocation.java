@@ -0,0 +1,22 @@
+package com.example.fidenz.entity;
+
+/**
+ * Id allocation shared by the entities. IDENTITY columns force Hibernate to insert every row on
+ * its own to read the generated key, so entity ids come from the id_allocations table instead:
+ * one row per table, handed out in blocks of ALLOCATION_SIZE by Hibernate's pooled optimizer.
+ * The stored value is the upper end of the next block: reading S hands out S - ALLOCATION_SIZE + 1
+ * to S and stores S + ALLOCATION_SIZE, so every id handed out so far is at most
+ * next_val - ALLOCATION_SIZE. This needs hibernate.id.generator.stored_last_used=false, which
+ * JpaBatchingConfig sets; with the Hibernate 6 default the blocks shift up by one. JDBC writers
+ * reserve ids through IdAllocationRepository, which follows the same rule.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_allocations";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
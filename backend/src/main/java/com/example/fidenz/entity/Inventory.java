@@ -25,7 +25,10 @@ import java.time.LocalDateTime;
 public class Inventory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "inventory_ids")
+    @TableGenerator(name = "inventory_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "inventory",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import jakarta.persistence.*;
+import jakarta.persistence.Index;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,13 +18,18 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+       indexes = @Index(name = "idx_products_category", columnList = "category"))
+@EntityListeners(ReferenceDataListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @ToString(exclude = {"inventories", "salesTransactions", "reorderRecommendations"})
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_ids")
+    @TableGenerator(name = "product_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "products",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     @NotBlank
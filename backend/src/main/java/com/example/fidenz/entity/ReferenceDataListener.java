@@ -0,0 +1,46 @@
+package com.example.fidenz.entity;
+
+import com.example.fidenz.event.ReferenceDataChangedEvent;
+import com.example.fidenz.event.ReferenceDataChangedEvent.ChangeType;
+import com.example.fidenz.event.ReferenceDataChangedEvent.EntityType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener on {@link Product} and {@link Store} that publishes a
+ * {@link ReferenceDataChangedEvent} for every written row, so the caches built from them can drop it
+ * without the entities knowing about the caches. Hibernate obtains it from the Spring context.
+ */
+public class ReferenceDataListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReferenceDataListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onInsert(Object entity) {
+        publish(entity, ChangeType.INSERT);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, ChangeType.UPDATE);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(entity, ChangeType.REMOVE);
+    }
+
+    private void publish(Object entity, ChangeType changeType) {
+        if (entity instanceof Product product) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(EntityType.PRODUCT, product.getId(), changeType));
+        } else if (entity instanceof Store store) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(EntityType.STORE, store.getId(), changeType));
+        }
+    }
+}
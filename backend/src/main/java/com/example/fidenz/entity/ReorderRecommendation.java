@@ -23,13 +23,19 @@ import java.time.LocalDateTime;
            @Index(name = "idx_reorder_store_id", columnList = "store_id"),
            @Index(name = "idx_reorder_product_id", columnList = "product_id"),
            @Index(name = "idx_reorder_store_processed", columnList = "store_id, is_processed")
+       },
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_reorder_product_store", columnNames = {"product_id", "store_id"})
        })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @ToString(exclude = {"product", "store"})
 public class ReorderRecommendation {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reorder_recommendation_ids")
+    @TableGenerator(name = "reorder_recommendation_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "reorder_recommendations",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
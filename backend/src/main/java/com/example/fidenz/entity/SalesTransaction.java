@@ -21,14 +21,17 @@ import java.time.LocalDateTime;
        indexes = {
            @Index(name = "idx_sales_transactions_store_id", columnList = "store_id"),
            @Index(name = "idx_sales_transactions_product_id", columnList = "product_id"),
-           @Index(name = "idx_sales_transactions_store_date", columnList = "store_id, transaction_date")
+           @Index(name = "idx_sales_transactions_store_date_id", columnList = "store_id, transaction_date, id")
        })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @ToString(exclude = {"product", "store"})
 public class SalesTransaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sales_transaction_ids")
+    @TableGenerator(name = "sales_transaction_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "sales_transactions",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
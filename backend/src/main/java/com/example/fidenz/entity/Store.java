@@ -18,12 +18,16 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "stores")
+@EntityListeners(ReferenceDataListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @ToString(exclude = {"inventories", "salesTransactions", "reorderRecommendations"})
 public class Store {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "store_ids")
+    @TableGenerator(name = "store_ids", table = IdAllocation.TABLE, pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = "stores",
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     @NotBlank
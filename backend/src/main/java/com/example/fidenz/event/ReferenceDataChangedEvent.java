@@ -0,0 +1,23 @@
+package com.example.fidenz.event;
+
+/**
+ * Published when a product or store row is written through JPA, as the write is flushed
+ * (so before the transaction commits).
+ */
+public record ReferenceDataChangedEvent(
+    EntityType entityType,
+    Long id,
+    ChangeType changeType
+) {
+
+    public enum EntityType {
+        PRODUCT,
+        STORE
+    }
+
+    public enum ChangeType {
+        INSERT,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.fidenz.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Published after the stock level of a product in a store has been changed,
+ * either by a sale or by a manual inventory update. currentStock is null when the
+ * writer did not read the new level back (a single sale on the database path).
+ *
+ * sequence orders the changes of one inventory row. It is taken when the event is created, which
+ * database writers do while their transaction holds the row's lock, so a later write of the row
+ * gets a higher sequence even if its after-commit listeners run first.
+ */
+public record StockChangedEvent(
+    Long storeId,
+    Long productId,
+    Integer currentStock,
+    ChangeType changeType,
+    long sequence
+) {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    public StockChangedEvent(Long storeId, Long productId, Integer currentStock, ChangeType changeType) {
+        this(storeId, productId, currentStock, changeType, SEQUENCE.incrementAndGet());
+    }
+
+    public enum ChangeType {
+        SALE,
+        ADJUSTMENT
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.DailySalesRollup;
+import com.example.fidenz.entity.DailySalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId> {
+
+    // Adds one sale to its day row, creating the row on the first sale of the day
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (store_id, product_id, sales_date, quantity, revenue, transaction_count, weekday) " +
+                   "VALUES (:storeId, :productId, :salesDate, :quantity, :revenue, 1, :weekday) " +
+                   "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, revenue = revenue + :revenue, " +
+                   "transaction_count = transaction_count + 1",
+           nativeQuery = true)
+    void addSale(@Param("storeId") Long storeId,
+                 @Param("productId") Long productId,
+                 @Param("salesDate") LocalDate salesDate,
+                 @Param("quantity") long quantity,
+                 @Param("revenue") BigDecimal revenue,
+                 @Param("weekday") boolean weekday);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.id.storeId = :storeId")
+    int deleteByStoreId(@Param("storeId") Long storeId);
+
+    // Same shape as SalesTransactionRepository.summarizeSalesByProduct, read from day rows
+    @Query("SELECT new com.example.fidenz.dto.ProductSalesSummary(r.id.productId, SUM(r.quantity), SUM(r.transactionCount), " +
+           "SUM(CASE WHEN r.weekday = true THEN r.transactionCount ELSE 0L END)) " +
+           "FROM DailySalesRollup r " +
+           "WHERE r.id.storeId = :storeId AND r.id.salesDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.id.productId")
+    List<ProductSalesSummary> summarizeSalesByProduct(@Param("storeId") Long storeId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.example.fidenz.dto.ProductSalesSummary(r.id.productId, SUM(r.quantity), SUM(r.transactionCount), " +
+           "SUM(CASE WHEN r.weekday = true THEN r.transactionCount ELSE 0L END)) " +
+           "FROM DailySalesRollup r " +
+           "WHERE r.id.storeId = :storeId AND r.id.productId IN :productIds " +
+           "AND r.id.salesDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.id.productId")
+    List<ProductSalesSummary> summarizeSalesForProducts(@Param("storeId") Long storeId,
+                                                        @Param("productIds") Collection<Long> productIds,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.example.fidenz.dto.ProductRevenue(r.id.productId, SUM(r.revenue)) " +
+           "FROM DailySalesRollup r " +
+           "WHERE r.id.storeId = :storeId AND r.id.salesDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.id.productId")
+    List<ProductRevenue> sumRevenueByProduct(@Param("storeId") Long storeId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+}
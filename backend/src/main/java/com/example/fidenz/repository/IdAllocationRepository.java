@@ -0,0 +1,58 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.entity.IdAllocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Reserves entity ids for rows written with JDBC, from the same id_allocations rows Hibernate uses,
+ * so JDBC and JPA inserts never hand out the same id. See {@link IdAllocation} for the layout.
+ */
+@Repository
+public class IdAllocationRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT " + IdAllocation.VALUE_COLUMN + " FROM " + IdAllocation.TABLE
+            + " WHERE " + IdAllocation.NAME_COLUMN + " = ? FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE " + IdAllocation.TABLE + " SET " + IdAllocation.VALUE_COLUMN + " = ?"
+            + " WHERE " + IdAllocation.NAME_COLUMN + " = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO " + IdAllocation.TABLE + " (" + IdAllocation.NAME_COLUMN + ", " + IdAllocation.VALUE_COLUMN
+            + ") VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdAllocationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserve count consecutive ids for the table. Runs in a transaction of its own, like Hibernate's
+     * allocation, so the allocation row is not locked until the caller commits.
+     *
+     * @param table The table name, which is also the allocation row name.
+     * @return The first reserved id.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocate(String table, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one id must be allocated");
+        }
+        List<Long> current = jdbcTemplate.queryForList(SELECT_SQL, Long.class, table);
+        // a missing row means no id was handed out yet, the same as a row holding ALLOCATION_SIZE
+        long nextVal = current.isEmpty() ? IdAllocation.ALLOCATION_SIZE : current.get(0);
+        if (current.isEmpty()) {
+            jdbcTemplate.update(INSERT_SQL, table, nextVal + count);
+        } else {
+            jdbcTemplate.update(UPDATE_SQL, nextVal + count, table);
+        }
+        return nextVal - IdAllocation.ALLOCATION_SIZE + 1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.fidenz.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Row lookups for bulk inventory adjustments. Each method reads all the rows a batch refers to in one
+ * statement and locks them until the transaction ends; the new levels are written with
+ * {@link SalesBatchRepository#updateStock}.
+ */
+@Repository
+public class InventoryAdjustmentRepository {
+
+    private static final String LOCK_BY_ID_SQL = """
+            SELECT i.id, i.store_id, i.product_id, p.sku, i.current_stock
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE i.id IN (:ids)
+            FOR UPDATE
+            """;
+
+    private static final String LOCK_BY_SKU_SQL = """
+            SELECT i.id, i.store_id, i.product_id, p.sku, i.current_stock
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE i.store_id IN (:storeIds) AND p.sku IN (:skus)
+            FOR UPDATE
+            """;
+
+    /**
+     * Stock row of one product in one store, with the product's sku.
+     */
+    public record InventoryRow(Long id, Long storeId, Long productId, String sku, int currentStock) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InventoryAdjustmentRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<InventoryRow> lockByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(LOCK_BY_ID_SQL, new MapSqlParameterSource("ids", ids), this::mapRow);
+    }
+
+    /**
+     * Rows of the given stores whose product has one of the skus; may include store and sku pairs
+     * nobody asked for, which the caller ignores.
+     */
+    public List<InventoryRow> lockBySku(Collection<Long> storeIds, Collection<String> skus) {
+        if (storeIds.isEmpty() || skus.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("storeIds", storeIds)
+                .addValue("skus", skus);
+        return jdbcTemplate.query(LOCK_BY_SKU_SQL, params, this::mapRow);
+    }
+
+    private InventoryRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new InventoryRow(rs.getLong("id"), rs.getLong("store_id"), rs.getLong("product_id"),
+                rs.getString("sku"), rs.getInt("current_stock"));
+    }
+}
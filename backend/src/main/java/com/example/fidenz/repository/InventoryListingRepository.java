@@ -0,0 +1,19 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.entity.Inventory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Chain-wide inventory listing with optional filters, mixed into {@link InventoryRepository}.
+ * A null storeId or category matches every row; lowStock keeps the rows below their product's
+ * minimum storage quantity. Rows come with their product and store, in id order.
+ */
+public interface InventoryListingRepository {
+
+    Page<Inventory> findPageWithDetails(Long storeId, String category, boolean lowStock, Pageable pageable);
+
+    // Same listing without the count: one extra row is read to tell whether a next page exists
+    Slice<Inventory> findSliceWithDetails(Long storeId, String category, boolean lowStock, Pageable pageable);
+}
@@ -0,0 +1,83 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.entity.Inventory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Builds the listing's WHERE clause from only the filters that are set, so each combination is its own
+ * statement and can use its own index instead of sharing one plan full of "IS NULL OR" branches. Rows
+ * are in id order, which the store_id index keeps within a store, so a store page is read from that
+ * index without a sort.
+ */
+public class InventoryListingRepositoryImpl implements InventoryListingRepository {
+
+    private final EntityManager entityManager;
+
+    public InventoryListingRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Inventory> findPageWithDetails(Long storeId, String category, boolean lowStock, Pageable pageable) {
+        List<Inventory> content = select(storeId, category, lowStock, pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(storeId, category, lowStock));
+    }
+
+    @Override
+    public Slice<Inventory> findSliceWithDetails(Long storeId, String category, boolean lowStock, Pageable pageable) {
+        List<Inventory> rows = select(storeId, category, lowStock, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Inventory> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private List<Inventory> select(Long storeId, String category, boolean lowStock, long offset, int limit) {
+        TypedQuery<Inventory> query = entityManager.createQuery(
+                "SELECT i FROM Inventory i JOIN FETCH i.product p JOIN FETCH i.store"
+                + where(storeId, category, lowStock) + " ORDER BY i.id", Inventory.class);
+        bind(query, storeId, category);
+        return query.setFirstResult(Math.toIntExact(offset)).setMaxResults(limit).getResultList();
+    }
+
+    private long count(Long storeId, String category, boolean lowStock) {
+        // the product is joined only when a filter reads it
+        String join = category != null || lowStock ? " JOIN i.product p" : "";
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(i) FROM Inventory i" + join + where(storeId, category, lowStock), Long.class);
+        bind(query, storeId, category);
+        return query.getSingleResult();
+    }
+
+    private static String where(Long storeId, String category, boolean lowStock) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        if (storeId != null) {
+            where.add("i.store.id = :storeId");
+        }
+        if (category != null) {
+            where.add("p.category = :category");
+        }
+        if (lowStock) {
+            where.add("i.currentStock < p.minStorageQty");
+        }
+        return where.toString();
+    }
+
+    private static void bind(Query query, Long storeId, String category) {
+        if (storeId != null) {
+            query.setParameter("storeId", storeId);
+        }
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package com.example.fidenz.repository;
 
+import com.example.fidenz.dto.LowStockItem;
 import com.example.fidenz.entity.Inventory;
 import com.example.fidenz.entity.Product;
 import com.example.fidenz.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, InventoryListingRepository {
 
     Optional<Inventory> findByProductAndStore(Product product, Store store);
     
@@ -20,10 +24,32 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("SELECT i FROM Inventory i JOIN FETCH i.product JOIN FETCH i.store WHERE i.store.id = :storeId")
     List<Inventory> findByStoreIdWithDetails(@Param("storeId") Long storeId);
     
-    @Query("SELECT i FROM Inventory i JOIN FETCH i.product JOIN FETCH i.store")
-    List<Inventory> findAllWithDetails();
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product JOIN FETCH i.store WHERE i.store.id = :storeId AND i.product.id IN :productIds")
+    List<Inventory> findByStoreIdAndProductIdInWithDetails(@Param("storeId") Long storeId,
+                                                           @Param("productIds") Collection<Long> productIds);
     
     @Query("SELECT i FROM Inventory i JOIN FETCH i.product JOIN FETCH i.store WHERE i.id = :inventoryId")
     Optional<Inventory> findByIdWithDetails(@Param("inventoryId") Long inventoryId);
 
+    @Query("SELECT new com.example.fidenz.dto.LowStockItem(i.store.id, p.id, p.name, p.sku, i.currentStock, p.minStorageQty) " +
+           "FROM Inventory i JOIN i.product p WHERE i.currentStock < p.minStorageQty")
+    List<LowStockItem> findLowStockItems();
+
+    @Query("SELECT new com.example.fidenz.dto.LowStockItem(i.store.id, p.id, p.name, p.sku, i.currentStock, p.minStorageQty) " +
+           "FROM Inventory i JOIN i.product p WHERE p.id = :productId AND i.currentStock < p.minStorageQty")
+    List<LowStockItem> findLowStockItemsByProduct(@Param("productId") Long productId);
+
+    @Query("SELECT i.currentStock FROM Inventory i WHERE i.store.id = :storeId AND i.product.id = :productId")
+    Optional<Integer> findCurrentStock(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    // Check and take stock in one statement; returns 0 when the row is missing or holds less than quantity.
+    // Bypasses the persistence context, so an Inventory already loaded in it keeps its old stock.
+    @Modifying
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock - :quantity, i.updatedAt = :updatedAt " +
+           "WHERE i.store.id = :storeId AND i.product.id = :productId AND i.currentStock >= :quantity")
+    int decrementStock(@Param("storeId") Long storeId,
+                       @Param("productId") Long productId,
+                       @Param("quantity") int quantity,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
 }
@@ -0,0 +1,154 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.entity.ReorderRecommendation;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for reorder recommendations that bypass the per-entity JPA path.
+ * Rows are keyed by the (product_id, store_id) unique key, so a whole store is written
+ * with one batched {@code INSERT ... ON DUPLICATE KEY UPDATE}. With MySQL, add
+ * {@code rewriteBatchedStatements=true} to the JDBC url so the driver sends the batch
+ * as a single multi-row statement.
+ */
+@Repository
+public class ReorderRecommendationBatchRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO reorder_recommendations (id, product_id, store_id, current_stock, average_daily_sales,
+                seasonality_factor, adjusted_sales, lead_time, safety_stock, reorder_point, recommended_qty,
+                is_processed, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                current_stock = VALUES(current_stock),
+                average_daily_sales = VALUES(average_daily_sales),
+                seasonality_factor = VALUES(seasonality_factor),
+                adjusted_sales = VALUES(adjusted_sales),
+                lead_time = VALUES(lead_time),
+                safety_stock = VALUES(safety_stock),
+                reorder_point = VALUES(reorder_point),
+                recommended_qty = VALUES(recommended_qty),
+                is_processed = VALUES(is_processed),
+                updated_at = VALUES(updated_at)
+            """;
+
+    private static final String EXISTING_SQL =
+            "SELECT product_id, id, created_at FROM reorder_recommendations WHERE store_id = ?";
+
+    private static final String EXISTING_FOR_PRODUCTS_SQL =
+            "SELECT product_id, id, created_at FROM reorder_recommendations"
+            + " WHERE store_id = :storeId AND product_id IN (:productIds)";
+
+    /**
+     * Id and creation time of a stored recommendation.
+     */
+    public record ExistingRecommendation(Long id, LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final IdAllocationRepository idAllocationRepository;
+
+    public ReorderRecommendationBatchRepository(JdbcTemplate jdbcTemplate,
+                                                NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                                IdAllocationRepository idAllocationRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.idAllocationRepository = idAllocationRepository;
+    }
+
+    /**
+     * Load the stored recommendations of a store in one query, keyed by product id.
+     */
+    public Map<Long, ExistingRecommendation> findExistingByStoreId(Long storeId) {
+        Map<Long, ExistingRecommendation> existing = new HashMap<>();
+        jdbcTemplate.query(EXISTING_SQL, collectInto(existing), storeId);
+        return existing;
+    }
+
+    /**
+     * Load the stored recommendations of the given products in a store in one query, keyed by product id.
+     */
+    public Map<Long, ExistingRecommendation> findExistingByStoreIdAndProductIdIn(Long storeId,
+                                                                                Collection<Long> productIds) {
+        Map<Long, ExistingRecommendation> existing = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return existing;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("productIds", productIds);
+        namedParameterJdbcTemplate.query(EXISTING_FOR_PRODUCTS_SQL, params, collectInto(existing));
+        return existing;
+    }
+
+    private static RowCallbackHandler collectInto(Map<Long, ExistingRecommendation> existing) {
+        return rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            existing.put(rs.getLong("product_id"), new ExistingRecommendation(
+                    rs.getLong("id"), createdAt != null ? createdAt.toLocalDateTime() : null));
+        };
+    }
+
+    /**
+     * Insert or update the given recommendations in a single JDBC batch.
+     * Recommendations without an id are new and get one from a single allocation.
+     * created_at is only written for new rows; updated_at is taken from each recommendation.
+     */
+    public void upsertAll(List<ReorderRecommendation> recommendations) {
+        if (recommendations.isEmpty()) {
+            return;
+        }
+        List<ReorderRecommendation> newRows = recommendations.stream().filter(r -> r.getId() == null).toList();
+        if (!newRows.isEmpty()) {
+            long firstId = idAllocationRepository.allocate("reorder_recommendations", newRows.size());
+            for (int i = 0; i < newRows.size(); i++) {
+                newRows.get(i).setId(firstId + i);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ReorderRecommendation r = recommendations.get(i);
+                ps.setLong(1, r.getId());
+                ps.setLong(2, r.getProduct().getId());
+                ps.setLong(3, r.getStore().getId());
+                ps.setInt(4, r.getCurrentStock());
+                ps.setBigDecimal(5, r.getAverageDailySales());
+                ps.setBigDecimal(6, r.getSeasonalityFactor());
+                ps.setBigDecimal(7, r.getAdjustedSales());
+                if (r.getLeadTime() != null) {
+                    ps.setInt(8, r.getLeadTime());
+                } else {
+                    ps.setNull(8, Types.INTEGER);
+                }
+                ps.setInt(9, r.getSafetyStock());
+                ps.setInt(10, r.getReorderPoint());
+                ps.setInt(11, r.getRecommendedQuantity());
+                ps.setBoolean(12, Boolean.TRUE.equals(r.getProcessed()));
+                ps.setTimestamp(13, Timestamp.valueOf(r.getCreatedAt()));
+                ps.setTimestamp(14, Timestamp.valueOf(r.getUpdatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return recommendations.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.fidenz.repository;
+
+import com.example.fidenz.entity.DailySalesRollup;
+import com.example.fidenz.entity.SalesTransaction;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC batch writes for sales ingested in bulk. Each method sends its rows as one batch, so a
+ * POS sync of thousands of sales costs a handful of round trips instead of several per sale.
+ */
+@Repository
+public class SalesBatchRepository {
+
+    private static final String LOCK_INVENTORY_SQL = """
+            SELECT id, store_id, product_id, current_stock FROM inventory
+            WHERE store_id IN (:storeIds) AND product_id IN (:productIds)
+            FOR UPDATE
+            """;
+
+    private static final String INSERT_SALE_SQL = """
+            INSERT INTO sales_transactions (id, store_id, product_id, quantity, unit_price, total_amount,
+                transaction_date, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_STOCK_SQL =
+            "UPDATE inventory SET current_stock = ?, updated_at = ? WHERE id = ?";
+
+    private static final String ADD_TO_ROLLUP_SQL = """
+            INSERT INTO daily_sales_rollups (store_id, product_id, sales_date, quantity, revenue,
+                transaction_count, weekday)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                quantity = quantity + VALUES(quantity),
+                revenue = revenue + VALUES(revenue),
+                transaction_count = transaction_count + VALUES(transaction_count)
+            """;
+
+    /**
+     * Stock row of one product in one store.
+     */
+    public record InventoryStock(Long id, Long storeId, Long productId, int currentStock) {
+    }
+
+    /**
+     * New stock level of an inventory row.
+     */
+    public record StockUpdate(Long inventoryId, int currentStock) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final IdAllocationRepository idAllocationRepository;
+
+    public SalesBatchRepository(NamedParameterJdbcTemplate jdbcTemplate, IdAllocationRepository idAllocationRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocationRepository = idAllocationRepository;
+    }
+
+    /**
+     * Read and lock the inventory rows of the given stores and products until the transaction ends.
+     */
+    public List<InventoryStock> lockInventory(Collection<Long> storeIds, Collection<Long> productIds) {
+        if (storeIds.isEmpty() || productIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("storeIds", storeIds)
+                .addValue("productIds", productIds);
+        return jdbcTemplate.query(LOCK_INVENTORY_SQL, params, (rs, rowNum) -> new InventoryStock(
+                rs.getLong("id"), rs.getLong("store_id"), rs.getLong("product_id"), rs.getInt("current_stock")));
+    }
+
+    /**
+     * Insert the transactions in one batch, with ids reserved up front in one allocation.
+     */
+    public void insertAll(List<SalesTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        long firstId = idAllocationRepository.allocate("sales_transactions", transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            transactions.get(i).setId(firstId + i);
+        }
+
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SALE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SalesTransaction t = transactions.get(i);
+                ps.setLong(1, t.getId());
+                ps.setLong(2, t.getStore().getId());
+                ps.setLong(3, t.getProduct().getId());
+                ps.setInt(4, t.getQuantity());
+                ps.setBigDecimal(5, t.getUnitPrice());
+                ps.setBigDecimal(6, t.getTotalAmount());
+                ps.setTimestamp(7, Timestamp.valueOf(t.getTransactionDate()));
+                ps.setTimestamp(8, Timestamp.valueOf(t.getCreatedAt()));
+                ps.setTimestamp(9, Timestamp.valueOf(t.getUpdatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return transactions.size();
+            }
+        });
+    }
+
+    /**
+     * Write the new stock levels in one batch.
+     */
+    public void updateStock(List<StockUpdate> updates, LocalDateTime updatedAt) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(updatedAt);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockUpdate update = updates.get(i);
+                ps.setInt(1, update.currentStock());
+                ps.setTimestamp(2, timestamp);
+                ps.setLong(3, update.inventoryId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+
+    /**
+     * Add the given day totals to the daily rollup in one batch, creating missing day rows.
+     */
+    public void addToRollup(List<DailySalesRollup> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(ADD_TO_ROLLUP_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DailySalesRollup row = rows.get(i);
+                ps.setLong(1, row.getId().getStoreId());
+                ps.setLong(2, row.getId().getProductId());
+                ps.setDate(3, Date.valueOf(row.getId().getSalesDate()));
+                ps.setLong(4, row.getQuantity());
+                ps.setBigDecimal(5, row.getRevenue());
+                ps.setLong(6, row.getTransactionCount());
+                ps.setBoolean(7, Boolean.TRUE.equals(row.getWeekday()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
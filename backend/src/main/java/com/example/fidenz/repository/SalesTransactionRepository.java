@@ -1,23 +1,102 @@
 package com.example.fidenz.repository;
 
+import com.example.fidenz.dto.DailyProductSales;
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.dto.SalesTransactionResponse;
 import com.example.fidenz.entity.SalesTransaction;
 import com.example.fidenz.entity.Store;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SalesTransactionRepository extends JpaRepository<SalesTransaction, Long> {
 
-    List<SalesTransaction> findByStoreId(Long storeId);
+    // Columns after the id of the flat SalesTransactionResponse constructor, with p = product and s = store
+    String SALES_RESPONSE_COLUMNS = "p.id, p.name, p.sku, p.category, s.id, s.name, s.location, " +
+            "st.quantity, st.unitPrice, st.totalAmount, st.transactionDate, st.createdAt";
 
     List<SalesTransaction> findByStoreIdAndTransactionDateBetween(Long storeId, LocalDateTime startDate, LocalDateTime endDate);
 
-    @Query("SELECT st FROM SalesTransaction st WHERE st.store.id = :storeId AND st.transactionDate >= :startDate")
-    List<SalesTransaction> findRecentSalesByStore(@Param("storeId") Long storeId, @Param("startDate") LocalDateTime startDate);
+    // First page of a store's sales since startDate, newest first, as response rows (one statement, nothing
+    // left to load while serializing); served by idx_sales_transactions_store_date_id
+    @Query("SELECT new com.example.fidenz.dto.SalesTransactionResponse(st.id, " + SALES_RESPONSE_COLUMNS + ") " +
+           "FROM SalesTransaction st JOIN st.product p JOIN st.store s " +
+           "WHERE s.id = :storeId AND st.transactionDate >= :startDate " +
+           "ORDER BY st.transactionDate DESC, st.id DESC")
+    List<SalesTransactionResponse> findPageByStore(@Param("storeId") Long storeId,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   Limit limit);
+
+    // Next page: the rows after (cursorDate, cursorId) in the same order, so the index seek costs the same at any depth
+    @Query("SELECT new com.example.fidenz.dto.SalesTransactionResponse(st.id, " + SALES_RESPONSE_COLUMNS + ") " +
+           "FROM SalesTransaction st JOIN st.product p JOIN st.store s " +
+           "WHERE s.id = :storeId AND st.transactionDate >= :startDate " +
+           "AND (st.transactionDate < :cursorDate OR (st.transactionDate = :cursorDate AND st.id < :cursorId)) " +
+           "ORDER BY st.transactionDate DESC, st.id DESC")
+    List<SalesTransactionResponse> findPageByStoreAfter(@Param("storeId") Long storeId,
+                                                        @Param("startDate") LocalDateTime startDate,
+                                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                                        @Param("cursorId") Long cursorId,
+                                                        Limit limit);
+
+    // Whole history of a store in (transaction_date, id) order for exports; rows are fetched in chunks of
+    // 1000 (MySQL needs useCursorFetch=true for that) and the stream must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT st FROM SalesTransaction st WHERE st.store.id = :storeId ORDER BY st.transactionDate, st.id")
+    Stream<SalesTransaction> streamByStore(@Param("storeId") Long storeId);
+
+    // One grouped row per product; day of week is 1 (Sunday) to 7 (Saturday)
+    @Query("SELECT new com.example.fidenz.dto.ProductSalesSummary(st.product.id, SUM(st.quantity), COUNT(st), " +
+           "SUM(CASE WHEN EXTRACT(DAY OF WEEK FROM st.transactionDate) IN (1, 7) THEN 0 ELSE 1 END)) " +
+           "FROM SalesTransaction st " +
+           "WHERE st.store.id = :storeId AND st.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY st.product.id")
+    List<ProductSalesSummary> summarizeSalesByProduct(@Param("storeId") Long storeId,
+                                                      @Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
+
+    // Revenue per product summed in SQL, so no transaction entities are loaded
+    @Query("SELECT new com.example.fidenz.dto.ProductRevenue(st.product.id, SUM(st.totalAmount)) " +
+           "FROM SalesTransaction st " +
+           "WHERE st.store.id = :storeId AND st.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY st.product.id")
+    List<ProductRevenue> sumRevenueByProduct(@Param("storeId") Long storeId,
+                                             @Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate);
+
+    // summarizeSalesByProduct restricted to the given products
+    @Query("SELECT new com.example.fidenz.dto.ProductSalesSummary(st.product.id, SUM(st.quantity), COUNT(st), " +
+           "SUM(CASE WHEN EXTRACT(DAY OF WEEK FROM st.transactionDate) IN (1, 7) THEN 0 ELSE 1 END)) " +
+           "FROM SalesTransaction st " +
+           "WHERE st.store.id = :storeId AND st.product.id IN :productIds " +
+           "AND st.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY st.product.id")
+    List<ProductSalesSummary> summarizeSalesForProducts(@Param("storeId") Long storeId,
+                                                        @Param("productIds") Collection<Long> productIds,
+                                                        @Param("startDate") LocalDateTime startDate,
+                                                        @Param("endDate") LocalDateTime endDate);
+
+    // One row per product and calendar day, used to (re)build the daily rollup of a store
+    @Query("SELECT new com.example.fidenz.dto.DailyProductSales(st.product.id, CAST(st.transactionDate AS LocalDate), " +
+           "SUM(st.quantity), SUM(st.totalAmount), COUNT(st)) " +
+           "FROM SalesTransaction st " +
+           "WHERE st.store.id = :storeId " +
+           "GROUP BY st.product.id, CAST(st.transactionDate AS LocalDate)")
+    List<DailyProductSales> summarizeDailySalesByProduct(@Param("storeId") Long storeId);
 
 }
@@ -0,0 +1,97 @@
+package com.example.fidenz.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock reads and writes of the in-memory stock ledger: the full stock table to rebuild it on
+ * startup, and its buffered sales written back as one batch of relative decrements.
+ */
+@Repository
+public class StockLedgerRepository {
+
+    private static final String LOAD_ALL_SQL = "SELECT store_id, product_id, current_stock FROM inventory";
+
+    private static final String LOAD_STOCK_SQL = """
+            SELECT store_id, product_id, current_stock FROM inventory
+            WHERE store_id = :storeId AND product_id IN (:productIds)
+            """;
+
+    // Relative, so stock written meanwhile by other paths (adjustments, batch ingestion) is kept
+    private static final String SUBTRACT_STOCK_SQL = """
+            UPDATE inventory SET current_stock = current_stock - ?, updated_at = ?
+            WHERE store_id = ? AND product_id = ?
+            """;
+
+    /**
+     * Stock of one product in one store.
+     */
+    public record StockLevel(Long storeId, Long productId, int currentStock) {
+    }
+
+    /**
+     * Units sold since the last write-back.
+     */
+    public record StockDelta(Long storeId, Long productId, int quantity) {
+    }
+
+    private static final RowMapper<StockLevel> STOCK_LEVEL_MAPPER = (rs, rowNum) -> new StockLevel(
+            rs.getLong("store_id"), rs.getLong("product_id"), rs.getInt("current_stock"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StockLedgerRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<StockLevel> loadAll() {
+        return jdbcTemplate.query(LOAD_ALL_SQL, STOCK_LEVEL_MAPPER);
+    }
+
+    public List<StockLevel> loadStock(Long storeId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("productIds", productIds);
+        return jdbcTemplate.query(LOAD_STOCK_SQL, params, STOCK_LEVEL_MAPPER);
+    }
+
+    /**
+     * Subtract the sold quantities from the stored stock in one batch and one transaction.
+     */
+    @Transactional
+    public void subtractAll(List<StockDelta> deltas, LocalDateTime updatedAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(updatedAt);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(SUBTRACT_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockDelta delta = deltas.get(i);
+                ps.setInt(1, delta.quantity());
+                ps.setTimestamp(2, timestamp);
+                ps.setLong(3, delta.storeId());
+                ps.setLong(4, delta.productId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+}
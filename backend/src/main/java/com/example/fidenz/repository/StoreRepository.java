@@ -2,6 +2,7 @@ package com.example.fidenz.repository;
 
 import com.example.fidenz.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.List;
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
 
-
+    @Query("SELECT s.id FROM Store s ORDER BY s.id")
+    List<Long> findAllIds();
 
 }
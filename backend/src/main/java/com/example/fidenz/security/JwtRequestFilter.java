@@ -1,5 +1,6 @@
 package com.example.fidenz.security;
 
+import com.example.fidenz.entity.Role;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +8,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -22,10 +25,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final GetUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserRoleCache userRoleCache;
 
-    public JwtRequestFilter(GetUserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(GetUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                            VerifiedTokenCache verifiedTokenCache, UserRoleCache userRoleCache) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userRoleCache = userRoleCache;
     }
 
     @Override
@@ -34,14 +42,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        VerifiedToken token;
 
         // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                // Signature and expiry are checked once here; everything below reads the verified claims
+                token = verifiedTokenCache.verify(requestTokenHeader.substring(7));
             } catch (Exception e) {
                 log.error("Unable to get JWT Token or JWT Token has expired: {}", e.getMessage());
                 chain.doFilter(request, response);
@@ -56,12 +63,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         // Once we get the token validate it.
+        String username = token.username();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = null;
+            Role role = token.role();
+            if (role == null) {
+                // Token issued before the role was put into it: rebuild the authorities from the user
+                userDetails = this.userDetailsService.loadUserByUsername(username);
+                if (!jwtUtil.validateToken(token, userDetails)) {
+                    userDetails = null;
+                }
+            } else {
+                // The claims were verified above, so they are trusted as they are
+                if (userRoleCache.isEnabled()) {
+                    role = userRoleCache.currentRole(username).orElse(null);
+                }
+                if (role != null) {
+                    userDetails = User.withUsername(username)
+                            .password("")
+                            .authorities(new SimpleGrantedAuthority("ROLE_" + role.name()))
+                            .build();
+                }
+            }
 
             // if token is valid configure Spring Security to manually set authentication
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
+            if (userDetails != null) {
 
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,46 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.entity.Role;
+import com.example.fidenz.entity.User;
+import com.example.fidenz.repository.UserRepository;
+import com.example.fidenz.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Optional revalidation of the role carried in a JWT. Tokens keep their role until they expire, so a
+ * deployment that needs role changes and removed users to take effect sooner sets jwt.role-cache.ttl:
+ * the current role is then read from the users table at most once per user and TTL.
+ * Disabled by default (TTL 0). Metrics: cache.gets and cache.size tagged cache=user-roles.
+ */
+@Component
+public class UserRoleCache {
+
+    private final UserRepository userRepository;
+    private final BoundedTtlCache<String, Optional<Role>> roles;
+
+    public UserRoleCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                         @Value("${jwt.role-cache.ttl:0s}") Duration ttl,
+                         @Value("${jwt.role-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.roles = ttl.isZero() ? null : new BoundedTtlCache<>("user-roles", maxSize, ttl, meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return roles != null;
+    }
+
+    /**
+     * The role the user holds now, at most TTL old, or empty if the user no longer exists.
+     */
+    public Optional<Role> currentRole(String username) {
+        if (roles == null) {
+            throw new IllegalStateException("Role revalidation is disabled");
+        }
+        return roles.get(username, name -> userRepository.findByUsername(name).map(User::getRole));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.entity.Role;
+
+import java.time.Instant;
+
+/**
+ * The claims of a JWT whose signature and expiry were checked, read once per token.
+ *
+ * @param username  The subject.
+ * @param role      The role claim, or null for tokens issued before roles were put into the token.
+ * @param expiresAt When the token expires, or null if it does not.
+ */
+public record VerifiedToken(String username, Role role, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.util.BoundedTtlCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Recently verified tokens, so a client sending the same token on every request (a POS terminal)
+ * pays for the HMAC check once per TTL. Only tokens that verified are stored; a stored token is still
+ * rejected once its own expiry passes. jwt.verified-cache.ttl=0s turns the cache off.
+ * Metrics: cache.gets and cache.size tagged cache=verified-tokens.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final BoundedTtlCache<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                              @Value("${jwt.verified-cache.ttl:PT1M}") Duration ttl,
+                              @Value("${jwt.verified-cache.max-size:10000}") int maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.tokens = ttl.isZero() ? null : new BoundedTtlCache<>("verified-tokens", maxSize, ttl, meterRegistry);
+    }
+
+    /**
+     * The claims of the token, verified at most TTL ago.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token does not verify or has expired.
+     */
+    public VerifiedToken verify(String token) {
+        if (tokens == null) {
+            return jwtUtil.verify(token);
+        }
+        VerifiedToken verified = tokens.get(token, jwtUtil::verify);
+        if (verified.isExpired(Instant.now())) {
+            tokens.invalidate(token);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + verified.expiresAt());
+        }
+        return verified;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ABC results shared by the analysis, by-category and summary endpoints. Entries are keyed by
+ * store, window length and calendar day, expire after abc.cache.ttl and are dropped as soon as a
+ * sale for their store is committed.
+ */
+@Component
+public class AbcAnalysisCache {
+
+    static final String CACHE_NAME = "abc-analysis";
+
+    private final BoundedTtlCache<Key, List<AbcAnalysisResult>> cache;
+
+    public AbcAnalysisCache(MeterRegistry meterRegistry,
+                            @Value("${abc.cache.ttl:PT10M}") Duration ttl,
+                            @Value("${abc.cache.max-size:256}") int maxSize) {
+        this.cache = new BoundedTtlCache<>(CACHE_NAME, maxSize, ttl, meterRegistry);
+    }
+
+    /**
+     * Cached results for the store and window, computed with loader on a miss.
+     */
+    public List<AbcAnalysisResult> get(Long storeId, int days, Supplier<List<AbcAnalysisResult>> loader) {
+        return cache.get(new Key(storeId, days, LocalDate.now()), key -> List.copyOf(loader.get()));
+    }
+
+    public void invalidateStore(Long storeId) {
+        cache.invalidateIf(key -> key.storeId().equals(storeId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        // manual adjustments do not change revenue
+        if (event.changeType() == StockChangedEvent.ChangeType.SALE) {
+            invalidateStore(event.storeId());
+        }
+    }
+
+    private record Key(Long storeId, int days, LocalDate day) {}
+}
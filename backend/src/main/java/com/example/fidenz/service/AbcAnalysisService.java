@@ -1,18 +1,20 @@
 package com.example.fidenz.service;
 
 import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.dto.ProductRevenue;
 import com.example.fidenz.entity.Product;
-import com.example.fidenz.entity.SalesTransaction;
 import com.example.fidenz.entity.Store;
 import com.example.fidenz.exception.EntityNotFoundException;
+import com.example.fidenz.repository.ProductRepository;
 import com.example.fidenz.repository.SalesTransactionRepository;
 import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.util.FixedPointMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,18 +24,30 @@ public class AbcAnalysisService {
 
     private static final Logger log = LoggerFactory.getLogger(AbcAnalysisService.class);
 
+    // Revenue is kept in cents and percentages in hundredths of a percent
+    static final int MONEY_SCALE = 2;
     static final int PERCENT_SCALE = 4;
-    static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
-    static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
-    static final BigDecimal CATEGORY_A_THRESHOLD = BigDecimal.valueOf(80);
-    static final BigDecimal CATEGORY_B_THRESHOLD = BigDecimal.valueOf(95);
+    static final long CATEGORY_A_THRESHOLD = 8000;  // 80.00%
+    static final long CATEGORY_B_THRESHOLD = 9500;  // 95.00%
+
+    // Read revenue from the daily rollup instead of raw transactions
+    @Value("${analytics.use-rollups:false}")
+    private boolean useRollups;
 
     private final SalesTransactionRepository salesTransactionRepository;
     private final StoreRepository storeRepository;
+    private final ProductRepository productRepository;
+    private final SalesRollupService salesRollupService;
+    private final AbcAnalysisCache abcAnalysisCache;
 
-    public AbcAnalysisService(SalesTransactionRepository salesTransactionRepository, StoreRepository storeRepository) {
+    public AbcAnalysisService(SalesTransactionRepository salesTransactionRepository, StoreRepository storeRepository,
+                              ProductRepository productRepository, SalesRollupService salesRollupService,
+                              AbcAnalysisCache abcAnalysisCache) {
         this.salesTransactionRepository = salesTransactionRepository;
         this.storeRepository = storeRepository;
+        this.productRepository = productRepository;
+        this.salesRollupService = salesRollupService;
+        this.abcAnalysisCache = abcAnalysisCache;
     }
 
     /**
@@ -42,8 +56,13 @@ public class AbcAnalysisService {
      * @param storeId The ID of the store.
      * @param days    The number of days to look back for sales data.
      * @return A list of AbcAnalysisResult containing products categorized into A, B, and C.
+     *         The list is shared through {@link AbcAnalysisCache} and must not be modified.
      */
     public List<AbcAnalysisResult> performAbcAnalysis(Long storeId, int days) {
+        return abcAnalysisCache.get(storeId, days, () -> computeAbcAnalysis(storeId, days));
+    }
+
+    List<AbcAnalysisResult> computeAbcAnalysis(Long storeId, int days) {
         log.info("Performing ABC analysis for store: {} for the last {} days", storeId, days);
         
         Store store = storeRepository.findById(storeId)
@@ -53,24 +72,21 @@ public class AbcAnalysisService {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusDays(days);
         
-        List<SalesTransaction> sales = salesTransactionRepository
-                .findByStoreIdAndTransactionDateBetween(storeId, startDate, endDate);
+        Map<Product, Long> productRevenue = loadRevenueByProduct(storeId, startDate, endDate);
 
-        if (sales.isEmpty()) {
+        if (productRevenue.isEmpty()) {
             log.warn("No sales data found for store {} in the last {} days", storeId, days);
             return Collections.emptyList();
         }
 
-        Map<Product, BigDecimal> productRevenue = aggregateRevenueByProduct(sales);
-
-        BigDecimal grandTotal = calculateGrandTotal(productRevenue);
+        long grandTotal = calculateGrandTotal(productRevenue);
 
-        if (grandTotal.compareTo(BigDecimal.ZERO) == 0) {
+        if (grandTotal == 0) {
             log.warn("No revenue found for store {} in the last {} days", storeId, days);
             return Collections.emptyList();
         }
 
-        List<Map.Entry<Product, BigDecimal>> sortedProducts = sortByRevenueDescending(productRevenue);
+        List<Map.Entry<Product, Long>> sortedProducts = sortByRevenueDescending(productRevenue);
 
         List<AbcAnalysisResult> results = buildResults(sortedProducts, grandTotal);
 
@@ -80,74 +96,89 @@ public class AbcAnalysisService {
 
     /**
      * Determine the ABC category based on cumulative percentage.
-     * @param cumulativePercentage
-     * @return
+     * @param cumulativePercentage cumulative percentage in hundredths of a percent
+     * @return A, B or C
      */
-    String determineCategory(BigDecimal cumulativePercentage) {
-        if (cumulativePercentage.compareTo(CATEGORY_A_THRESHOLD) <= 0) {
+    String determineCategory(long cumulativePercentage) {
+        if (cumulativePercentage <= CATEGORY_A_THRESHOLD) {
             return "A";
-        } else if (cumulativePercentage.compareTo(CATEGORY_B_THRESHOLD) <= 0) {
+        } else if (cumulativePercentage <= CATEGORY_B_THRESHOLD) {
             return "B";
         } else {
             return "C";
         }
     }
 
-    // Aggregate total revenue per product using a simple loop
-    Map<Product, BigDecimal> aggregateRevenueByProduct(List<SalesTransaction> sales) {
-        Map<Product, BigDecimal> revenueByProduct = new HashMap<>();
-        for (SalesTransaction transaction : sales) {
-            Product product = transaction.getProduct();
-            BigDecimal amount = transaction.getTotalAmount();
-            if (amount == null) {
-                amount = BigDecimal.ZERO;
+    // Revenue in cents per product from the daily rollup (whole days, from the day after startDate so the
+    // inclusive range spans as many days as the raw window) or from raw transactions, summed in SQL so only
+    // one row per product reaches the heap
+    Map<Product, Long> loadRevenueByProduct(Long storeId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<ProductRevenue> revenues = useRollups
+                ? salesRollupService.sumRevenueByProduct(storeId, startDate.toLocalDate().plusDays(1), endDate.toLocalDate())
+                : salesTransactionRepository.sumRevenueByProduct(storeId, startDate, endDate);
+        if (revenues.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        List<Long> productIds = revenues.stream().map(ProductRevenue::productId).toList();
+        return aggregateRevenueByProduct(revenues, productRepository.findAllById(productIds));
+    }
+
+    // Attach the products to their revenue, converted to cents
+    Map<Product, Long> aggregateRevenueByProduct(List<ProductRevenue> revenues, Iterable<Product> products) {
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : products) {
+            productsById.put(product.getId(), product);
+        }
+
+        Map<Product, Long> revenueByProduct = new HashMap<>();
+        for (ProductRevenue revenue : revenues) {
+            Product product = productsById.get(revenue.productId());
+            if (product != null) {
+                revenueByProduct.put(product, FixedPointMath.toScaled(revenue.revenue(), MONEY_SCALE));
             }
-            revenueByProduct.merge(product, amount, BigDecimal::add);
         }
         return revenueByProduct;
     }
 
-    // Calculate grand total revenue across all products
-    BigDecimal calculateGrandTotal(Map<Product, BigDecimal> productRevenue) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (BigDecimal value : productRevenue.values()) {
+    // Calculate grand total revenue in cents across all products
+    long calculateGrandTotal(Map<Product, Long> productRevenue) {
+        long total = 0;
+        for (Long value : productRevenue.values()) {
             if (value != null) {
-                total = total.add(value);
+                total += value;
             }
         }
         return total;
     }
 
     // Sort entries by revenue descending
-    List<Map.Entry<Product, BigDecimal>> sortByRevenueDescending(Map<Product, BigDecimal> productRevenue) {
-        List<Map.Entry<Product, BigDecimal>> entries = new ArrayList<>(productRevenue.entrySet());
-        entries.sort(Map.Entry.<Product, BigDecimal>comparingByValue(Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+    List<Map.Entry<Product, Long>> sortByRevenueDescending(Map<Product, Long> productRevenue) {
+        List<Map.Entry<Product, Long>> entries = new ArrayList<>(productRevenue.entrySet());
+        entries.sort(Map.Entry.<Product, Long>comparingByValue(Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
         return entries;
     }
 
     // Build analysis results with cumulative and percentage calculations
-    List<AbcAnalysisResult> buildResults(List<Map.Entry<Product, BigDecimal>> sortedProducts, BigDecimal grandTotal) {
+    List<AbcAnalysisResult> buildResults(List<Map.Entry<Product, Long>> sortedProducts, long grandTotal) {
         List<AbcAnalysisResult> results = new ArrayList<>();
-        BigDecimal cumulativeRevenue = BigDecimal.ZERO;
+        long cumulativeRevenue = 0;
 
-        for (Map.Entry<Product, BigDecimal> entry : sortedProducts) {
+        for (Map.Entry<Product, Long> entry : sortedProducts) {
             Product product = entry.getKey();
-            BigDecimal revenue = entry.getValue();
-            if (revenue == null) {
-                revenue = BigDecimal.ZERO;
-            }
+            long revenue = entry.getValue() != null ? entry.getValue() : 0;
 
-            BigDecimal percentageOfTotal = percentage(revenue, grandTotal);
-            cumulativeRevenue = cumulativeRevenue.add(revenue);
-            BigDecimal cumulativePercentage = percentage(cumulativeRevenue, grandTotal);
+            long percentageOfTotal = percentage(revenue, grandTotal);
+            cumulativeRevenue += revenue;
+            long cumulativePercentage = percentage(cumulativeRevenue, grandTotal);
 
             String category = determineCategory(cumulativePercentage);
 
             AbcAnalysisResult result = AbcAnalysisResult.builder()
                     .product(product)
-                    .totalRevenue(revenue)
-                    .percentageOfTotal(percentageOfTotal)
-                    .cumulativePercentage(cumulativePercentage)
+                    .totalRevenue(FixedPointMath.toBigDecimal(revenue, MONEY_SCALE))
+                    .percentageOfTotal(toPercentDecimal(percentageOfTotal))
+                    .cumulativePercentage(toPercentDecimal(cumulativePercentage))
                     .category(category)
                     .build();
             results.add(result);
@@ -155,14 +186,20 @@ public class AbcAnalysisService {
         return results;
     }
 
-    // Helper for percentage computation with fixed scale/rounding
-    BigDecimal percentage(BigDecimal numerator, BigDecimal denominator) {
-        if (denominator == null || denominator.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
+    /**
+     * Percentage in hundredths of a percent: the ratio is rounded HALF_UP to PERCENT_SCALE
+     * digits and then multiplied by 100, so 1/3 gives 3333 (33.33%).
+     */
+    long percentage(long numerator, long denominator) {
+        if (denominator == 0) {
+            return 0;
         }
-        return numerator
-                .divide(denominator, PERCENT_SCALE, ROUNDING_MODE)
-                .multiply(ONE_HUNDRED);
+        return FixedPointMath.divideHalfUp(Math.multiplyExact(numerator, FixedPointMath.pow10(PERCENT_SCALE)), denominator);
+    }
+
+    // Same value and scale as ratio.setScale(PERCENT_SCALE).multiply(100)
+    static BigDecimal toPercentDecimal(long percentage) {
+        return FixedPointMath.toBigDecimal(percentage * 100, PERCENT_SCALE);
     }
 
     public Map<String, List<AbcAnalysisResult>> getAbcAnalysisByCategory(Long storeId, int days) {
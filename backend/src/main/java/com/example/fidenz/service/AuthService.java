@@ -35,11 +35,12 @@ public class AuthService {
         );
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(userDetails.getUsername());
-        
-        User user = userRepository.findByUsername(authRequest.username())
+        User user = userRepository.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
+        // The role travels in the token, so authenticated requests need no user lookup
+        String token = jwtUtil.generateToken(user.getUsername(), user.getRole());
+
         return new AuthResponse(token, user.getUsername(), user.getRole().name());
     }
 }
@@ -1,13 +1,40 @@
 package com.example.fidenz.service;
 
+import com.example.fidenz.dto.InventoryAdjustmentLineResult;
+import com.example.fidenz.dto.InventoryAdjustmentRequest;
+import com.example.fidenz.dto.InventoryAdjustmentResponse;
+import com.example.fidenz.dto.InventoryMapper;
+import com.example.fidenz.dto.InventoryResponse;
+import com.example.fidenz.dto.LowStockItem;
+import com.example.fidenz.dto.OffsetPage;
 import com.example.fidenz.entity.Inventory;
-import com.example.fidenz.entity.Store;
+import com.example.fidenz.event.StockChangedEvent;
 import com.example.fidenz.exception.EntityNotFoundException;
+import com.example.fidenz.repository.InventoryAdjustmentRepository;
+import com.example.fidenz.repository.InventoryAdjustmentRepository.InventoryRow;
 import com.example.fidenz.repository.InventoryRepository;
-import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.repository.SalesBatchRepository;
+import com.example.fidenz.repository.SalesBatchRepository.StockUpdate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This service handles inventory-related operations such as
@@ -18,39 +45,280 @@ import java.util.List;
 @Service
 public class InventoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
 
     private final InventoryRepository inventoryRepository;
-    private final StoreRepository storeRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedger stockLedger;
+    private final InventorySnapshotCache inventorySnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final InventoryAdjustmentRepository inventoryAdjustmentRepository;
+    private final LowStockIndex lowStockIndex;
+    private final SalesBatchRepository salesBatchRepository;
+    private final int maxPageSize;
+    private final int maxBatchSize;
 
-    public InventoryService(InventoryRepository inventoryRepository, StoreRepository storeRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, ReferenceDataCache referenceDataCache,
+                            ApplicationEventPublisher eventPublisher, StockLedger stockLedger,
+                            InventorySnapshotCache inventorySnapshotCache, ObjectMapper objectMapper,
+                            InventoryAdjustmentRepository inventoryAdjustmentRepository,
+                            SalesBatchRepository salesBatchRepository, LowStockIndex lowStockIndex,
+                            @Value("${inventory.page.max-size:500}") int maxPageSize,
+                            @Value("${inventory.adjustment.max-size:10000}") int maxBatchSize) {
         this.inventoryRepository = inventoryRepository;
-        this.storeRepository = storeRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.eventPublisher = eventPublisher;
+        this.stockLedger = stockLedger;
+        this.inventorySnapshotCache = inventorySnapshotCache;
+        this.objectMapper = objectMapper;
+        this.inventoryAdjustmentRepository = inventoryAdjustmentRepository;
+        this.salesBatchRepository = salesBatchRepository;
+        this.lowStockIndex = lowStockIndex;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
-    public List<Inventory> getInventoryByStore(Long storeId) {
-        // Validate store exists
-        storeRepository.findById(storeId)
-                .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
-        
-        // Use JOIN FETCH for better performance with LAZY loading
-        return inventoryRepository.findByStoreIdWithDetails(storeId);
+    /**
+     * ETag of the store's current inventory, answered from memory.
+     */
+    public String getInventoryEtag(Long storeId) {
+        referenceDataCache.getStore(storeId);
+        return inventorySnapshotCache.etag(storeId);
+    }
+
+    /**
+     * The store's inventory listing as serialized JSON, read from the database only when the store's
+     * stock changed since the cached snapshot.
+     */
+    public InventorySnapshotCache.Snapshot getInventorySnapshot(Long storeId) {
+        referenceDataCache.getStore(storeId);
+        return inventorySnapshotCache.get(storeId, () -> {
+            // Use JOIN FETCH for better performance with LAZY loading
+            List<Inventory> inventory = inventoryRepository.findByStoreIdWithDetails(storeId);
+            try {
+                return objectMapper.writeValueAsBytes(InventoryMapper.toResponseList(inventory));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize the inventory of store " + storeId, e);
+            }
+        });
     }
 
+    @Transactional
     public Inventory updateInventory(Long inventoryId, Integer newStock) {
         if (newStock < 0) {
             throw new IllegalArgumentException("Stock quantity cannot be negative");
         }
+        if (stockLedger.isEnabled()) {
+            stockLedger.beginAdjustment();
+        }
         
         // Use JOIN FETCH to load related entities if needed for response
         Inventory inventory = inventoryRepository.findByIdWithDetails(inventoryId)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory", inventoryId));
         
         inventory.setCurrentStock(newStock);
-        return inventoryRepository.save(inventory);
+        // flushed so the row is locked before the event takes its sequence
+        Inventory saved = inventoryRepository.saveAndFlush(inventory);
+        if (stockLedger.isEnabled()) {
+            stockLedger.stockAdjusted(saved.getStore().getId(), List.of(saved.getProduct().getId()));
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(saved.getStore().getId(), saved.getProduct().getId(),
+                saved.getCurrentStock(), StockChangedEvent.ChangeType.ADJUSTMENT));
+        return saved;
     }
 
-    public List<Inventory> getAllInventories() {
-        // Use JOIN FETCH for better performance with LAZY loading
-        return inventoryRepository.findAllWithDetails();
+    /**
+     * The store's items furthest below their product's minimum storage quantity, from the in-memory index.
+     */
+    public List<LowStockItem> getLowStockItems(Long storeId, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize);
+        }
+        referenceDataCache.getStore(storeId);
+        return lowStockIndex.top(storeId, limit);
     }
+
+    /**
+     * Apply many stock adjustments in one transaction, e.g. a store recount or a goods receipt. The rows
+     * are read and locked up front (one statement for lines by id, one for lines by sku), each line is
+     * applied to the stock left by the lines before it, and the new levels are written with one JDBC
+     * batch. Rejected lines change nothing and are reported with their reason.
+     *
+     * @param requests The adjustments in the order they should be applied.
+     * @return One result per request line.
+     */
+    @Transactional
+    public InventoryAdjustmentResponse adjustInventory(List<InventoryAdjustmentRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can contain at most " + maxBatchSize + " adjustments");
+        }
+
+        Set<Long> inventoryIds = new HashSet<>();
+        Set<Long> storeIds = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (InventoryAdjustmentRequest request : requests) {
+            if (request == null) {
+                continue;
+            }
+            if (request.inventoryId() != null) {
+                inventoryIds.add(request.inventoryId());
+            } else if (request.storeId() != null && request.sku() != null) {
+                storeIds.add(request.storeId());
+                skus.add(request.sku());
+            }
+        }
+
+        // a count sets stock to an absolute value, so write-backs of buffered sales wait until this batch completes
+        if (stockLedger.isEnabled() && requests.stream().anyMatch(request -> request != null && request.newStock() != null)) {
+            stockLedger.beginAdjustment();
+        }
+
+        Map<Long, InventoryRow> rowsById = new HashMap<>();
+        for (InventoryRow row : inventoryAdjustmentRepository.lockByIds(inventoryIds)) {
+            rowsById.put(row.id(), row);
+        }
+        Map<SkuKey, List<InventoryRow>> rowsBySku = new HashMap<>();
+        for (InventoryRow row : inventoryAdjustmentRepository.lockBySku(storeIds, skus)) {
+            rowsBySku.computeIfAbsent(new SkuKey(row.storeId(), row.sku()), key -> new ArrayList<>()).add(row);
+        }
+
+        // stock per inventory row after the lines applied so far
+        Map<Long, Integer> stockAfter = new LinkedHashMap<>();
+        Map<Long, InventoryRow> touchedInventory = new LinkedHashMap<>();
+        Set<Long> countedInventory = new HashSet<>();
+        InventoryAdjustmentLineResult[] results = new InventoryAdjustmentLineResult[requests.size()];
+        int applied = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            InventoryAdjustmentRequest request = requests.get(i);
+            String error = validateAdjustment(request);
+            if (error != null) {
+                results[i] = InventoryAdjustmentLineResult.rejected(i, error);
+                continue;
+            }
+            InventoryRow row;
+            if (request.inventoryId() != null) {
+                row = rowsById.get(request.inventoryId());
+                if (row == null) {
+                    results[i] = InventoryAdjustmentLineResult.rejected(i,
+                            new EntityNotFoundException("Inventory", request.inventoryId()).getMessage());
+                    continue;
+                }
+            } else {
+                List<InventoryRow> matches = rowsBySku.getOrDefault(new SkuKey(request.storeId(), request.sku()), List.of());
+                if (matches.size() != 1) {
+                    results[i] = InventoryAdjustmentLineResult.rejected(i, matches.isEmpty()
+                            ? "Inventory not found for sku " + request.sku() + " in store " + request.storeId()
+                            : "Sku " + request.sku() + " matches several products in store " + request.storeId());
+                    continue;
+                }
+                row = matches.get(0);
+            }
+
+            int stock = stockAfter.getOrDefault(row.id(), row.currentStock());
+            long newStock = request.newStock() != null ? request.newStock() : (long) stock + request.delta();
+            if (newStock < 0) {
+                results[i] = InventoryAdjustmentLineResult.rejected(i, "Stock cannot go below 0. Current: " + stock);
+                continue;
+            }
+            if (newStock > Integer.MAX_VALUE) {
+                results[i] = InventoryAdjustmentLineResult.rejected(i, "Stock quantity is too large");
+                continue;
+            }
+            // stock moved out must also be free in the ledger, which holds sales the row does not include yet;
+            // a counted row is reset to its count once the batch commits
+            if (stockLedger.isEnabled() && request.delta() != null && request.delta() < 0
+                    && !countedInventory.contains(row.id())
+                    && stockLedger.reserve(row.storeId(), row.productId(), -request.delta()) < 0) {
+                results[i] = InventoryAdjustmentLineResult.rejected(i, "Stock cannot go below 0. Available: "
+                        + stockLedger.available(row.storeId(), row.productId()).orElse(0));
+                continue;
+            }
+            stockAfter.put(row.id(), (int) newStock);
+            touchedInventory.put(row.id(), row);
+            if (request.newStock() != null) {
+                countedInventory.add(row.id());
+            }
+            results[i] = InventoryAdjustmentLineResult.applied(i, row.id(), (int) newStock);
+            applied++;
+        }
+
+        List<StockUpdate> stockUpdates = new ArrayList<>();
+        stockAfter.forEach((inventoryId, stock) -> stockUpdates.add(new StockUpdate(inventoryId, stock)));
+        salesBatchRepository.updateStock(stockUpdates, LocalDateTime.now());
+
+        Map<Long, List<Long>> countedProductsByStore = new HashMap<>();
+        Map<Long, List<Long>> movedProductsByStore = new HashMap<>();
+        for (InventoryRow row : touchedInventory.values()) {
+            (countedInventory.contains(row.id()) ? countedProductsByStore : movedProductsByStore)
+                    .computeIfAbsent(row.storeId(), id -> new ArrayList<>()).add(row.productId());
+        }
+        // registered before the events, so their after-commit listeners see the reloaded ledger
+        if (stockLedger.isEnabled()) {
+            countedProductsByStore.forEach(stockLedger::stockAdjusted);
+            // a delta is relative to the stored stock like a sale, so sales still buffered in the ledger stay due
+            movedProductsByStore.forEach(stockLedger::stockSold);
+        }
+        for (InventoryRow row : touchedInventory.values()) {
+            eventPublisher.publishEvent(new StockChangedEvent(row.storeId(), row.productId(),
+                    stockAfter.get(row.id()), StockChangedEvent.ChangeType.ADJUSTMENT));
+        }
+
+        log.info("Applied inventory adjustments: {} received, {} applied to {} rows",
+                requests.size(), applied, touchedInventory.size());
+        return new InventoryAdjustmentResponse(requests.size(), applied, requests.size() - applied, List.of(results));
+    }
+
+    // Checks that @Valid would do for a single adjustment; null when the line is well-formed
+    private static String validateAdjustment(InventoryAdjustmentRequest request) {
+        if (request == null) {
+            return "Adjustment must not be null";
+        }
+        boolean bySku = request.storeId() != null || request.sku() != null;
+        if ((request.inventoryId() != null) == bySku) {
+            return "Give either inventoryId or storeId and sku";
+        }
+        if (bySku && (request.storeId() == null || request.sku() == null)) {
+            return "storeId and sku are required together";
+        }
+        if ((request.newStock() != null) == (request.delta() != null)) {
+            return "Give either newStock or delta";
+        }
+        if (request.newStock() != null && request.newStock() < 0) {
+            return "Stock quantity cannot be negative";
+        }
+        return null;
+    }
+
+    /**
+     * One page of the chain-wide inventory, in id order. Null filters match every row; lowStock keeps
+     * the rows below their product's minimum storage quantity. The total is counted only on request,
+     * as the count reads every matching row.
+     */
+    public OffsetPage<InventoryResponse> getInventoryPage(Long storeId, String category, boolean lowStock,
+                                                          int page, int size, boolean withTotal) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        if (storeId != null) {
+            referenceDataCache.getStore(storeId);
+        }
+        String categoryFilter = category == null || category.isBlank() ? null : category;
+        PageRequest pageRequest = PageRequest.of(page, size);
+
+        if (withTotal) {
+            Page<Inventory> result = inventoryRepository.findPageWithDetails(storeId, categoryFilter, lowStock, pageRequest);
+            return new OffsetPage<>(InventoryMapper.toResponseList(result.getContent()), page, size,
+                    result.hasNext(), result.getTotalElements());
+        }
+        Slice<Inventory> result = inventoryRepository.findSliceWithDetails(storeId, categoryFilter, lowStock, pageRequest);
+        return new OffsetPage<>(InventoryMapper.toResponseList(result.getContent()), page, size,
+                result.hasNext(), null);
+    }
+
+    private record SkuKey(Long storeId, String sku) {}
 }
@@ -0,0 +1,84 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-store inventory versions and the serialized inventory listing of each store at its current version.
+ * A version is bumped after every committed stock change of the store, so the ETag built from it changes
+ * exactly when the listing may have changed and can be checked without reading the database. Snapshots
+ * of the most recently read stores are kept up to inventory.snapshot.max-stores.
+ * Metrics: cache.gets and cache.size tagged cache=inventory-snapshots.
+ */
+@Component
+public class InventorySnapshotCache {
+
+    static final String CACHE_NAME = "inventory-snapshots";
+
+    /**
+     * The JSON body of a store's inventory listing and the ETag of the version it was read at.
+     */
+    public record Snapshot(String etag, byte[] body) {}
+
+    // versions restart at 0 with the application, so the ETag also names the run that issued it
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final BoundedTtlCache<Long, Snapshot> snapshots;
+
+    public InventorySnapshotCache(MeterRegistry meterRegistry,
+                                  @Value("${inventory.snapshot.ttl:PT10M}") Duration ttl,
+                                  @Value("${inventory.snapshot.max-stores:64}") int maxStores) {
+        this.snapshots = new BoundedTtlCache<>(CACHE_NAME, maxStores, ttl, meterRegistry);
+    }
+
+    /**
+     * Strong ETag of the store's inventory at its current version.
+     */
+    public String etag(Long storeId) {
+        AtomicLong version = versions.get(storeId);
+        return "\"" + instance + "-" + storeId + "-" + (version != null ? version.get() : 0) + "\"";
+    }
+
+    /**
+     * The store's snapshot at the current version, serialized with loader on a miss. The version is read
+     * before loading, so a snapshot that raced a stock change carries the older ETag and is not reused.
+     * Invalidation is per store: a stock change in one store leaves the snapshots of the others,
+     * including ones still loading, in place.
+     */
+    public Snapshot get(Long storeId, Supplier<byte[]> loader) {
+        String etag = etag(storeId);
+        Snapshot snapshot = snapshots.get(storeId, id -> new Snapshot(etag, loader.get()));
+        if (snapshot.etag().equals(etag)) {
+            return snapshot;
+        }
+        snapshots.invalidate(storeId);
+        return snapshots.get(storeId, id -> new Snapshot(etag, loader.get()));
+    }
+
+    public void storeChanged(Long storeId) {
+        versions.computeIfAbsent(storeId, id -> new AtomicLong()).incrementAndGet();
+        snapshots.invalidate(storeId);
+    }
+
+    public void storesChanged(Collection<Long> storeIds) {
+        storeIds.forEach(this::storeChanged);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        storeChanged(event.storeId());
+    }
+}
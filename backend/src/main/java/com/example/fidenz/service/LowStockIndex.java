@@ -0,0 +1,193 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.LowStockItem;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.event.ReferenceDataChangedEvent;
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.repository.InventoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+
+/**
+ * Products below their minimum storage quantity, per store, sorted by how far below it they are.
+ * Built from the inventory table on startup and kept current from the committed stock changes
+ * (sales, adjustments, batches), so the most urgent items of a store are read without scanning its
+ * inventory or running the reorder computation. A product whose minimum changes is reloaded once
+ * the change commits (see {@link ReferenceDataChangedEvent}).
+ *
+ * After-commit listeners of different transactions can run in any order, so a change older than the
+ * last one applied to its row (by {@link StockChangedEvent#sequence()}) is ignored. With the stock
+ * ledger enabled the level is read from the ledger instead, under the store's lock, since sales
+ * taken there are not ordered by a row lock.
+ *
+ * Metric: inventory.low-stock.items (low-stock items across all stores).
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    // furthest below the minimum first; the product id gives every item of a store its own place
+    private static final Comparator<LowStockItem> MOST_URGENT_FIRST = Comparator
+            .comparing(LowStockItem::shortfall, Comparator.reverseOrder())
+            .thenComparing(LowStockItem::productId);
+
+    private final InventoryRepository inventoryRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final StockLedger stockLedger;
+    private final Map<Long, StoreItems> stores = new ConcurrentHashMap<>();
+
+    public LowStockIndex(InventoryRepository inventoryRepository, ReferenceDataCache referenceDataCache,
+                         StockLedger stockLedger, MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.stockLedger = stockLedger;
+
+        Gauge.builder("inventory.low-stock.items", stores,
+                        s -> s.values().stream().mapToInt(StoreItems::size).sum())
+                .description("Inventory rows below their product's minimum storage quantity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the index from the inventory table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<LowStockItem> items = inventoryRepository.findLowStockItems();
+        stores.clear();
+        items.forEach(this::put);
+        log.info("Low-stock index loaded {} items in {} stores", items.size(), stores.size());
+    }
+
+    /**
+     * The store's items furthest below their minimum, at most limit of them.
+     */
+    public List<LowStockItem> top(Long storeId, int limit) {
+        StoreItems items = stores.get(storeId);
+        return items == null ? List.of() : items.sorted.stream().limit(limit).toList();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Product product = referenceDataCache.findProduct(event.productId()).orElse(null);
+        StoreItems items = stores.computeIfAbsent(event.storeId(), id -> new StoreItems());
+        if (product == null || product.getMinStorageQty() == null) {
+            items.update(event.productId(), event.sequence(), () -> null);
+            return;
+        }
+        if (stockLedger.isEnabled()) {
+            items.update(event.productId(), event.sequence(), () -> {
+                OptionalInt available = stockLedger.available(event.storeId(), event.productId());
+                return lowStockItem(event.storeId(), product, available.isPresent() ? available.getAsInt() : null);
+            });
+            return;
+        }
+        // the level is only read back when the writer did not report it; read after this change
+        // committed, it is at least as new as the change
+        Integer currentStock = event.currentStock() != null ? event.currentStock()
+                : inventoryRepository.findCurrentStock(event.storeId(), event.productId()).orElse(null);
+        LowStockItem item = lowStockItem(event.storeId(), product, currentStock);
+        items.update(event.productId(), event.sequence(), () -> item);
+    }
+
+    /**
+     * A changed or removed product is reloaded once the write commits, since its minimum storage
+     * quantity or name may have changed. A new product has no stock yet.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.entityType() == ReferenceDataChangedEvent.EntityType.PRODUCT
+                && event.changeType() != ReferenceDataChangedEvent.ChangeType.INSERT) {
+            productChanged(event.id());
+        }
+    }
+
+    /**
+     * Reload a product's items in every store, after its minimum or the product itself changed.
+     */
+    public void productChanged(Long productId) {
+        stores.values().forEach(items -> items.remove(productId));
+        inventoryRepository.findLowStockItemsByProduct(productId).forEach(this::put);
+    }
+
+    private void put(LowStockItem item) {
+        stores.computeIfAbsent(item.storeId(), id -> new StoreItems()).put(item);
+    }
+
+    // The product's item at this level, null when it is not below its minimum
+    private static LowStockItem lowStockItem(Long storeId, Product product, Integer currentStock) {
+        Integer minStorageQty = product.getMinStorageQty();
+        if (currentStock == null || currentStock >= minStorageQty) {
+            return null;
+        }
+        return new LowStockItem(storeId, product.getId(), product.getName(), product.getSku(),
+                currentStock, minStorageQty);
+    }
+
+    /**
+     * Low-stock items of one store. Writers take the lock so an item is never in the sorted set twice;
+     * readers walk the sorted set without it.
+     */
+    private static final class StoreItems {
+
+        private final NavigableSet<LowStockItem> sorted = new ConcurrentSkipListSet<>(MOST_URGENT_FIRST);
+        private final Map<Long, LowStockItem> byProduct = new HashMap<>();
+        // sequence of the last stock change applied per product, kept after its item is removed
+        private final Map<Long, Long> appliedSequence = new HashMap<>();
+
+        /**
+         * Apply a stock change unless a newer one of the product was applied already. item is
+         * evaluated under the lock and gives null when the product is not low on stock.
+         */
+        synchronized void update(Long productId, long sequence, Supplier<LowStockItem> item) {
+            Long applied = appliedSequence.get(productId);
+            if (applied != null && applied > sequence) {
+                return;
+            }
+            appliedSequence.put(productId, sequence);
+            LowStockItem next = item.get();
+            if (next != null) {
+                put(next);
+            } else {
+                remove(productId);
+            }
+        }
+
+        synchronized void put(LowStockItem item) {
+            LowStockItem previous = byProduct.put(item.productId(), item);
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+            sorted.add(item);
+        }
+
+        synchronized void remove(Long productId) {
+            LowStockItem previous = byProduct.remove(productId);
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+        }
+
+        int size() {
+            return sorted.size();
+        }
+    }
+}
@@ -11,9 +11,11 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ReferenceDataCache referenceDataCache;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ReferenceDataCache referenceDataCache) {
         this.productRepository = productRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     public List<Product> getAllProducts() {
@@ -21,7 +23,7 @@ public class ProductService {
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return referenceDataCache.findProduct(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
     }
 
@@ -0,0 +1,95 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.event.ReferenceDataChangedEvent;
+import com.example.fidenz.exception.EntityNotFoundException;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Products and stores by id, for lookups that only need the reference data (validating a sale,
+ * serving a product). Entries expire after reference.cache.ttl and are dropped whenever a product
+ * or store is written through JPA (see {@link ReferenceDataChangedEvent}). Unknown ids are cached as
+ * empty too, until the id is inserted.
+ *
+ * Cached instances are detached and shared: read them, do not modify them or touch their lazy
+ * collections. Metrics: cache.gets and cache.size tagged cache=products|stores.
+ */
+@Component
+public class ReferenceDataCache {
+
+    static final String PRODUCTS = "products";
+    static final String STORES = "stores";
+
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final BoundedTtlCache<Long, Optional<Product>> products;
+    private final BoundedTtlCache<Long, Optional<Store>> stores;
+
+    public ReferenceDataCache(ProductRepository productRepository, StoreRepository storeRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${reference.cache.ttl:PT10M}") Duration ttl,
+                              @Value("${reference.cache.max-size:10000}") int maxSize) {
+        this.productRepository = productRepository;
+        this.storeRepository = storeRepository;
+        this.products = new BoundedTtlCache<>(PRODUCTS, maxSize, ttl, meterRegistry);
+        this.stores = new BoundedTtlCache<>(STORES, maxSize, ttl, meterRegistry);
+    }
+
+    public Optional<Product> findProduct(Long id) {
+        return products.get(id, productRepository::findById);
+    }
+
+    public Optional<Store> findStore(Long id) {
+        return stores.get(id, storeRepository::findById);
+    }
+
+    public Product getProduct(Long id) {
+        return findProduct(id).orElseThrow(() -> new EntityNotFoundException("Product", id));
+    }
+
+    public Store getStore(Long id) {
+        return findStore(id).orElseThrow(() -> new EntityNotFoundException("Store", id));
+    }
+
+    public void invalidateProduct(Long id) {
+        products.invalidate(id);
+    }
+
+    public void invalidateStore(Long id) {
+        stores.invalidate(id);
+    }
+
+    /**
+     * Drops the written entry when the write is flushed and again when the transaction ends, so a reader
+     * that reloads it in between cannot keep the uncommitted or the old state.
+     */
+    @EventListener
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        Runnable invalidate = switch (event.entityType()) {
+            case PRODUCT -> () -> invalidateProduct(event.id());
+            case STORE -> () -> invalidateStore(event.id());
+        };
+
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+}
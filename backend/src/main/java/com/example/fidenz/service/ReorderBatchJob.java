@@ -0,0 +1,164 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ReorderBatchReport;
+import com.example.fidenz.dto.StoreReorderResult;
+import com.example.fidenz.repository.StoreRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
+/**
+ * Chain-wide reorder run. Every store is processed as its own task on a fixed-size pool,
+ * and each task runs in its own transaction through {@link ReorderService}, so one failing
+ * store never rolls back the others. Each run also replaces the stores' snapshots in
+ * {@link ReorderSnapshotService}, which is what the recommendations endpoint serves.
+ *
+ * reorder.batch.parallelism - worker threads, defaults to the number of available cores
+ * reorder.batch.cron        - precompute schedule, disabled ("-") unless configured
+ */
+@Service
+public class ReorderBatchJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorderBatchJob.class);
+
+    private final ReorderSnapshotService reorderSnapshotService;
+    private final StoreRepository storeRepository;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<ReorderBatchReport> lastReport = new AtomicReference<>();
+
+    public ReorderBatchJob(ReorderSnapshotService reorderSnapshotService, StoreRepository storeRepository,
+                           @Value("${reorder.batch.parallelism:0}") int parallelism) {
+        this.reorderSnapshotService = reorderSnapshotService;
+        this.storeRepository = storeRepository;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, new CustomizableThreadFactory("reorder-batch-"));
+    }
+
+    @Scheduled(cron = "${reorder.batch.cron:-}")
+    public void runNightly() {
+        log.info("Starting scheduled chain-wide reorder run");
+        if (runExclusively().isEmpty()) {
+            log.warn("Skipping scheduled reorder run, a previous run is still in progress");
+        }
+    }
+
+    /**
+     * Start a chain-wide run in the background.
+     *
+     * @return false when a run is already in progress.
+     */
+    public boolean triggerAsync() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread coordinator = new Thread(() -> {
+            try {
+                runForAllStores();
+            } finally {
+                running.set(false);
+            }
+        }, "reorder-batch-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return true;
+    }
+
+    public Optional<ReorderBatchReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private Optional<ReorderBatchReport> runExclusively() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(runForAllStores());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    ReorderBatchReport runForAllStores() {
+        List<Long> storeIds = storeRepository.findAllIds();
+        ReorderBatchReport report = runForStores(storeIds,
+                storeId -> reorderSnapshotService.refresh(storeId).recommendations().size());
+        lastReport.set(report);
+        return report;
+    }
+
+    /**
+     * Run the given per-store task for every store on the bounded pool and wait for all of them.
+     */
+    ReorderBatchReport runForStores(List<Long> storeIds, ToIntFunction<Long> storeTask) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        log.info("Running reorder generation for {} stores with parallelism {}", storeIds.size(), parallelism);
+
+        List<CompletableFuture<StoreReorderResult>> futures = new ArrayList<>(storeIds.size());
+        for (Long storeId : storeIds) {
+            futures.add(CompletableFuture.supplyAsync(() -> runStore(storeId, storeTask), executor));
+        }
+
+        List<StoreReorderResult> results = new ArrayList<>(futures.size());
+        int succeeded = 0;
+        int recommendationCount = 0;
+        for (CompletableFuture<StoreReorderResult> future : futures) {
+            StoreReorderResult result = future.join();
+            results.add(result);
+            if (result.success()) {
+                succeeded++;
+                recommendationCount += result.recommendationCount();
+            }
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int failed = results.size() - succeeded;
+        log.info("Reorder run finished in {} ms: {} stores succeeded, {} failed, {} recommendations",
+                durationMillis, succeeded, failed, recommendationCount);
+
+        return new ReorderBatchReport(startedAt, durationMillis, parallelism, storeIds.size(),
+                succeeded, failed, recommendationCount, results);
+    }
+
+    private StoreReorderResult runStore(Long storeId, ToIntFunction<Long> storeTask) {
+        long start = System.nanoTime();
+        try {
+            int count = storeTask.applyAsInt(storeId);
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Store {}: {} recommendations in {} ms", storeId, count, durationMillis);
+            return StoreReorderResult.succeeded(storeId, count, durationMillis);
+        } catch (Exception e) {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.error("Store {}: reorder generation failed after {} ms: {}", storeId, durationMillis, e.getMessage(), e);
+            return StoreReorderResult.failed(storeId, durationMillis, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
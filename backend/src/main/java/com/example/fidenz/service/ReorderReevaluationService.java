@@ -0,0 +1,126 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.event.StockChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps reorder recommendations current between batch runs. Every committed stock change marks its
+ * (store, product) pair dirty; a background flush re-evaluates only the dirty products, grouped per
+ * store, and patches the store's snapshot. Repeated changes to the same product before a flush are
+ * coalesced into one re-evaluation.
+ *
+ * Metrics: reorder.dirty.queue.depth (pairs waiting) and reorder.recompute.lag (time from the first
+ * change of a pair until its recommendation was rewritten).
+ */
+@Service
+public class ReorderReevaluationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorderReevaluationService.class);
+
+    private final ReorderService reorderService;
+    private final ReorderSnapshotService reorderSnapshotService;
+    private final int batchSize;
+
+    // value is the System.nanoTime() of the first change since the pair was last re-evaluated
+    private final Map<DirtyKey, Long> dirty = new ConcurrentHashMap<>();
+    private final Timer recomputeLag;
+
+    public ReorderReevaluationService(ReorderService reorderService, ReorderSnapshotService reorderSnapshotService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${reorder.dirty.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("reorder.dirty.batch-size must be at least 1");
+        }
+        this.reorderService = reorderService;
+        this.reorderSnapshotService = reorderSnapshotService;
+        this.batchSize = batchSize;
+
+        Gauge.builder("reorder.dirty.queue.depth", dirty, Map::size)
+                .description("Store/product pairs waiting for reorder re-evaluation")
+                .register(meterRegistry);
+        this.recomputeLag = Timer.builder("reorder.recompute.lag")
+                .description("Time from a stock change until its reorder recommendation was re-evaluated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mark the changed product dirty once the stock change is committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        dirty.putIfAbsent(new DirtyKey(event.storeId(), event.productId()), System.nanoTime());
+    }
+
+    /**
+     * Re-evaluate up to reorder.dirty.batch-size dirty products. A product changed again while it is
+     * being re-evaluated is marked dirty anew and picked up by the next flush, as are the products of a
+     * store whose re-evaluation failed.
+     */
+    @Scheduled(fixedDelayString = "${reorder.dirty.flush-interval:PT5S}")
+    public void flush() {
+        Map<Long, Map<Long, Long>> dirtyByStore = drain();
+        if (dirtyByStore.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<Long, Map<Long, Long>> entry : dirtyByStore.entrySet()) {
+            Long storeId = entry.getKey();
+            Map<Long, Long> markedAtByProduct = entry.getValue();
+            try {
+                List<ReorderRecommendation> recommendations =
+                        reorderService.reevaluateProducts(storeId, markedAtByProduct.keySet());
+                reorderSnapshotService.applyUpdates(storeId, markedAtByProduct.keySet(), recommendations);
+
+                long now = System.nanoTime();
+                for (Long markedAt : markedAtByProduct.values()) {
+                    recomputeLag.record(now - markedAt, TimeUnit.NANOSECONDS);
+                }
+            } catch (Exception e) {
+                // keep the earliest mark, so the lag still counts from the first change
+                markedAtByProduct.forEach((productId, markedAt) ->
+                        dirty.merge(new DirtyKey(storeId, productId), markedAt, Math::min));
+                log.error("Reorder re-evaluation failed for {} products in store {}, retrying on the next flush: {}",
+                        markedAtByProduct.size(), storeId, e.getMessage());
+            }
+        }
+    }
+
+    int pendingCount() {
+        return dirty.size();
+    }
+
+    private Map<Long, Map<Long, Long>> drain() {
+        Map<Long, Map<Long, Long>> dirtyByStore = new LinkedHashMap<>();
+        int drained = 0;
+        for (Map.Entry<DirtyKey, Long> entry : dirty.entrySet()) {
+            if (drained == batchSize) {
+                break;
+            }
+            DirtyKey key = entry.getKey();
+            Long markedAt = entry.getValue();
+            if (dirty.remove(key, markedAt)) {
+                dirtyByStore.computeIfAbsent(key.storeId(), id -> new LinkedHashMap<>()).put(key.productId(), markedAt);
+                drained++;
+            }
+        }
+        return dirtyByStore;
+    }
+
+    private record DirtyKey(Long storeId, Long productId) {}
+}
@@ -1,22 +1,26 @@
 package com.example.fidenz.service;
 
+import com.example.fidenz.dto.ProductSalesSummary;
 import com.example.fidenz.entity.*;
 import com.example.fidenz.exception.EntityNotFoundException;
 import com.example.fidenz.repository.*;
+import com.example.fidenz.repository.ReorderRecommendationBatchRepository.ExistingRecommendation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.fidenz.util.FixedPointMath;
 import com.example.fidenz.util.InventoryUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ReorderService {
@@ -25,12 +29,13 @@ public class ReorderService {
 
 
     static final int AVG_WINDOW_DAYS = 30;
+    // Sales figures are scaled longs: averages and factors in hundredths, adjusted sales in ten-thousandths
     static final int PERCENT_SCALE = 2;
-    static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
-    static final BigDecimal WEEKDAY_MULTIPLIER = BigDecimal.valueOf(0.8);
-    static final BigDecimal WEEKEND_MULTIPLIER = BigDecimal.valueOf(1.4);
-    static final BigDecimal DAYS_IN_WEEK = BigDecimal.valueOf(7);
-    static final BigDecimal MIN_SEASONALITY = BigDecimal.valueOf(0.1);
+    static final int ADJUSTED_SCALE = PERCENT_SCALE * 2;
+    static final long WEEKDAY_MULTIPLIER = 80;   // 0.80
+    static final long WEEKEND_MULTIPLIER = 140;  // 1.40
+    static final long DAYS_IN_WEEK = 7;
+    static final long MIN_SEASONALITY = 10;      // 0.10
     static final int SAFETY_STOCK_DAYS = 2;
     static final int LEAD_TIME_DAYS = 7;
     static final int ROUND_TO_NEAREST_STANDARD = 10;
@@ -40,17 +45,27 @@ public class ReorderService {
     static final int BASIC_ROUND_TO_NEAREST = 5;
     static final int LOW_STOCK_THRESHOLD = 5;
 
+    // Read sales aggregates from the daily rollup instead of raw transactions
+    @Value("${analytics.use-rollups:false}")
+    private boolean useRollups;
+
     private final InventoryRepository inventoryRepository;
     private final SalesTransactionRepository salesTransactionRepository;
     private final ReorderRecommendationRepository reorderRecommendationRepository;
     private final StoreRepository storeRepository;
+    private final ReorderRecommendationBatchRepository reorderRecommendationBatchRepository;
+    private final SalesRollupService salesRollupService;
 
     public ReorderService(InventoryRepository inventoryRepository, SalesTransactionRepository salesTransactionRepository,
-                         ReorderRecommendationRepository reorderRecommendationRepository, StoreRepository storeRepository) {
+                         ReorderRecommendationRepository reorderRecommendationRepository, StoreRepository storeRepository,
+                         ReorderRecommendationBatchRepository reorderRecommendationBatchRepository,
+                         SalesRollupService salesRollupService) {
         this.inventoryRepository = inventoryRepository;
         this.salesTransactionRepository = salesTransactionRepository;
         this.reorderRecommendationRepository = reorderRecommendationRepository;
         this.storeRepository = storeRepository;
+        this.reorderRecommendationBatchRepository = reorderRecommendationBatchRepository;
+        this.salesRollupService = salesRollupService;
     }
 
     /**
@@ -63,10 +78,42 @@ public class ReorderService {
     public List<ReorderRecommendation> generateReorderSuggestions(Long storeId) {
         log.info("Generating reorder suggestions for store: {}", storeId);
         
-        Store store = storeRepository.findById(storeId)
+        storeRepository.findById(storeId)
                 .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
 
         List<Inventory> inventories = inventoryRepository.findByStoreIdWithDetails(storeId);
+        Map<Long, ProductSalesSummary> salesByProduct = loadSalesSummaries(storeId);
+        List<ReorderRecommendation> recommendations = recommendAndSave(storeId, inventories, salesByProduct,
+                reorderRecommendationBatchRepository.findExistingByStoreId(storeId));
+
+        log.info("Generated {} reorder recommendations for store: {}", recommendations.size(), storeId);
+        return recommendations;
+    }
+
+    /**
+     * Re-evaluate the recommendations of only the given products in a store, e.g. after their stock changed.
+     * Reads inventory and sales for those products alone, so the cost does not grow with the store size.
+     *
+     * @param storeId    The ID of the store.
+     * @param productIds The products to re-evaluate.
+     * @return The recommendations written for those products.
+     */
+    @Transactional
+    public List<ReorderRecommendation> reevaluateProducts(Long storeId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Re-evaluating {} products in store: {}", productIds.size(), storeId);
+
+        List<Inventory> inventories = inventoryRepository.findByStoreIdAndProductIdInWithDetails(storeId, productIds);
+        Map<Long, ProductSalesSummary> salesByProduct = loadSalesSummaries(storeId, productIds);
+        return recommendAndSave(storeId, inventories, salesByProduct,
+                reorderRecommendationBatchRepository.findExistingByStoreIdAndProductIdIn(storeId, productIds));
+    }
+
+    private List<ReorderRecommendation> recommendAndSave(Long storeId, List<Inventory> inventories,
+                                                         Map<Long, ProductSalesSummary> salesByProduct,
+                                                         Map<Long, ExistingRecommendation> existingByProduct) {
         List<ReorderRecommendation> recommendations = new ArrayList<>();
 
         for (Inventory inventory : inventories) {
@@ -74,20 +121,10 @@ public class ReorderService {
                 log.debug("Processing inventory for product: {} (ID: {}), current stock: {}", 
                          inventory.getProduct().getName(), inventory.getProduct().getId(), inventory.getCurrentStock());
                 
-                ReorderRecommendation recommendation = calculateReorderRecommendation(inventory);
+                ReorderRecommendation recommendation = calculateReorderRecommendation(
+                        inventory, salesByProduct.get(inventory.getProduct().getId()));
                 if (recommendation != null) {
-                    // Check if recommendation already exists
-                    Optional<ReorderRecommendation> existing = reorderRecommendationRepository
-                            .findByProductAndStore(inventory.getProduct(), store);
-                    
-                    if (existing.isPresent()) {
-                        ReorderRecommendation updated = updateExistingRecommendation(existing.get(), recommendation);
-                        recommendations.add(updated);
-                    } else {
-                        // Create new recommendation
-                        reorderRecommendationRepository.save(recommendation);
-                        recommendations.add(recommendation);
-                    }
+                    recommendations.add(recommendation);
                 }
             } catch (Exception e) {
                 log.error("Error calculating reorder recommendation for product {} in store {}: {}", 
@@ -95,37 +132,78 @@ public class ReorderService {
             }
         }
 
-        log.info("Generated {} reorder recommendations for store: {}", recommendations.size(), storeId);
+        saveRecommendations(recommendations, existingByProduct);
         return recommendations;
     }
 
-    private ReorderRecommendation updateExistingRecommendation(ReorderRecommendation existing, ReorderRecommendation source) {
-        existing.setCurrentStock(source.getCurrentStock());
-        existing.setAverageDailySales(source.getAverageDailySales());
-        existing.setSeasonalityFactor(source.getSeasonalityFactor());
-        existing.setAdjustedSales(source.getAdjustedSales());
-        existing.setSafetyStock(source.getSafetyStock());
-        existing.setReorderPoint(source.getReorderPoint());
-        existing.setRecommendedQuantity(source.getRecommendedQuantity());
-        existing.setProcessed(false);
-        return reorderRecommendationRepository.save(existing);
+    /**
+     * Load the sales aggregates for every product of the store in a single grouped query,
+     * keyed by product id, so the per-product loop never goes back to the database for sales.
+     * With analytics.use-rollups the aggregates come from the daily rollup (whole days) instead
+     * of raw transactions.
+     */
+    Map<Long, ProductSalesSummary> loadSalesSummaries(Long storeId) {
+        return loadSalesSummaries(storeId, null);
     }
 
-    private ReorderRecommendation calculateReorderRecommendation(Inventory inventory) {
-        Product product = inventory.getProduct();
-        Store store = inventory.getStore();
-        
-        // Get sales data for the last 30 days
+    // productIds null means every product of the store
+    private Map<Long, ProductSalesSummary> loadSalesSummaries(Long storeId, Collection<Long> productIds) {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusDays(AVG_WINDOW_DAYS);
-        
-        List<SalesTransaction> sales = salesTransactionRepository
-                .findByStoreIdAndTransactionDateBetween(store.getId(), startDate, endDate)
-                .stream()
-                .filter(transaction -> transaction.getProduct().getId().equals(product.getId()))
-                .collect(Collectors.toList());
 
-        if (sales.isEmpty()) {
+        List<ProductSalesSummary> summaries;
+        if (useRollups) {
+            // rollup days are inclusive at both ends, so the window starts the day after startDate to span
+            // AVG_WINDOW_DAYS days like the raw window
+            LocalDate firstDay = startDate.toLocalDate().plusDays(1);
+            summaries = productIds == null
+                    ? salesRollupService.summarizeSalesByProduct(storeId, firstDay, endDate.toLocalDate())
+                    : salesRollupService.summarizeSalesForProducts(storeId, productIds, firstDay, endDate.toLocalDate());
+        } else {
+            summaries = productIds == null
+                    ? salesTransactionRepository.summarizeSalesByProduct(storeId, startDate, endDate)
+                    : salesTransactionRepository.summarizeSalesForProducts(storeId, productIds, startDate, endDate);
+        }
+
+        Map<Long, ProductSalesSummary> salesByProduct = new HashMap<>();
+        for (ProductSalesSummary summary : summaries) {
+            salesByProduct.put(summary.productId(), summary);
+        }
+        return salesByProduct;
+    }
+
+    /**
+     * Write the store's recommendations back in one batched upsert keyed by (product, store).
+     * Existing rows keep their id and creation time; new rows get their ids from the batch
+     * repository before the insert, so callers get fully populated recommendations without a read-back.
+     */
+    void saveRecommendations(List<ReorderRecommendation> recommendations,
+                             Map<Long, ExistingRecommendation> existingByProduct) {
+        if (recommendations.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ReorderRecommendation recommendation : recommendations) {
+            ExistingRecommendation existing = existingByProduct.get(recommendation.getProduct().getId());
+            if (existing != null) {
+                recommendation.setId(existing.id());
+                recommendation.setCreatedAt(existing.createdAt());
+            } else {
+                recommendation.setCreatedAt(now);
+            }
+            recommendation.setUpdatedAt(now);
+        }
+
+        reorderRecommendationBatchRepository.upsertAll(recommendations);
+    }
+
+    ReorderRecommendation calculateReorderRecommendation(Inventory inventory, ProductSalesSummary sales) {
+        Product product = inventory.getProduct();
+        Store store = inventory.getStore();
+
+        // sales holds the last 30 days for this product, or null when it did not sell
+        if (sales == null || sales.transactionCount() == 0) {
             log.debug("No sales data found for product {} in store {} for the last 30 days", 
                      product.getName(), store.getId());
             // create a basic recommendation based on minimum stock requirements
@@ -141,44 +219,46 @@ public class ReorderService {
             return null;
         }
 
-        // Calculate Average Daily Sales
-        BigDecimal totalQuantity = calculateTotalQuantity(sales);
+        // Calculate Average Daily Sales (hundredths)
+        long totalQuantity = sales.totalQuantity();
         
-        BigDecimal averageDailySales = totalQuantity.divide(BigDecimal.valueOf(AVG_WINDOW_DAYS), PERCENT_SCALE, ROUNDING_MODE);
+        long averageDailySales = FixedPointMath.divideHalfUp(
+                totalQuantity * FixedPointMath.pow10(PERCENT_SCALE), AVG_WINDOW_DAYS);
 
         // Calculate Seasonality Factor based on weekday vs weekend sales patterns
         // SeasonalityFactor = (WeekdayCount × 0.8 + WeekendCount × 1.4) / 7
-        long weekdayCount = countWeekdayTransactions(sales);
+        long weekdayCount = sales.weekdayCount();
         
-        long weekendCount = sales.size() - weekdayCount;
+        long weekendCount = sales.weekendCount();
         
         // Apply the seasonality formula: (WeekdayCount × 0.8 + WeekendCount × 1.4) / 7
-        BigDecimal weekdayFactor = BigDecimal.valueOf(weekdayCount).multiply(WEEKDAY_MULTIPLIER);
-        BigDecimal weekendFactor = BigDecimal.valueOf(weekendCount).multiply(WEEKEND_MULTIPLIER);
-        BigDecimal seasonalityFactor = weekdayFactor.add(weekendFactor).divide(DAYS_IN_WEEK, PERCENT_SCALE, ROUNDING_MODE);
+        long weekdayFactor = weekdayCount * WEEKDAY_MULTIPLIER;
+        long weekendFactor = weekendCount * WEEKEND_MULTIPLIER;
+        long seasonalityFactor = FixedPointMath.divideHalfUp(weekdayFactor + weekendFactor, DAYS_IN_WEEK);
         
         // Ensure seasonality factor is at least 0.1 to avoid zero calculations
-        if (seasonalityFactor.compareTo(MIN_SEASONALITY) < 0) {
+        if (seasonalityFactor < MIN_SEASONALITY) {
             seasonalityFactor = MIN_SEASONALITY;
         }
         
-        log.debug("Seasonality calculation for {}: weekdayCount={}, weekendCount={}, seasonalityFactor={}", 
+        log.debug("Seasonality calculation for {}: weekdayCount={}, weekendCount={}, seasonalityFactor={}/100", 
                  product.getName(), weekdayCount, weekendCount, seasonalityFactor);
 
-        // Calculate Adjusted Sales
-        BigDecimal adjustedSales = averageDailySales.multiply(seasonalityFactor);
+        // Calculate Adjusted Sales (ten-thousandths, exact product of two hundredths values)
+        long adjustedSales = averageDailySales * seasonalityFactor;
+        long adjustedUnit = FixedPointMath.pow10(ADJUSTED_SCALE);
 
-        // Calculate Safety Stock (assuming 2 days of safety stock)
-        Integer safetyStock = adjustedSales.multiply(BigDecimal.valueOf(SAFETY_STOCK_DAYS)).intValue();
+        // Calculate Safety Stock (assuming 2 days of safety stock), truncated like BigDecimal.intValue
+        Integer safetyStock = (int) (adjustedSales * SAFETY_STOCK_DAYS / adjustedUnit);
 
         // Calculate Reorder Point
-        Integer reorderPoint = adjustedSales.multiply(BigDecimal.valueOf(LEAD_TIME_DAYS)).intValue() + safetyStock; // lead time days
+        Integer reorderPoint = (int) (adjustedSales * LEAD_TIME_DAYS / adjustedUnit) + safetyStock; // lead time days
 
         // Calculate Recommended Quantity
         Integer currentStock = inventory.getCurrentStock();
         Integer reorderQty = reorderPoint - currentStock;
 
-        log.debug("Reorder calculation for {}: avgDailySales={}, seasonalityFactor={}, adjustedSales={}, safetyStock={}, reorderPoint={}, currentStock={}, reorderQty={}", 
+        log.debug("Reorder calculation for {}: avgDailySales={}/100, seasonalityFactor={}/100, adjustedSales={}/10000, safetyStock={}, reorderPoint={}, currentStock={}, reorderQty={}", 
                  product.getName(), averageDailySales, seasonalityFactor, adjustedSales, safetyStock, reorderPoint, currentStock, reorderQty);
 
         if (reorderQty <= 0) {
@@ -205,9 +285,9 @@ public class ReorderService {
                 .product(product)
                 .store(store)
                 .currentStock(currentStock)
-                .averageDailySales(averageDailySales)
-                .seasonalityFactor(seasonalityFactor)
-                .adjustedSales(adjustedSales)
+                .averageDailySales(FixedPointMath.toBigDecimal(averageDailySales, PERCENT_SCALE))
+                .seasonalityFactor(FixedPointMath.toBigDecimal(seasonalityFactor, PERCENT_SCALE))
+                .adjustedSales(FixedPointMath.toBigDecimal(adjustedSales, ADJUSTED_SCALE))
                 .safetyStock(safetyStock)
                 .reorderPoint(reorderPoint)
                 .recommendedQuantity(reorderQty)
@@ -231,25 +311,6 @@ public class ReorderService {
         return null;
     }
 
-    BigDecimal calculateTotalQuantity(List<SalesTransaction> sales) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (SalesTransaction transaction : sales) {
-            total = total.add(BigDecimal.valueOf(transaction.getQuantity()));
-        }
-        return total;
-    }
-
-    long countWeekdayTransactions(List<SalesTransaction> sales) {
-        long count = 0;
-        for (SalesTransaction transaction : sales) {
-            DayOfWeek dayOfWeek = transaction.getTransactionDate().getDayOfWeek();
-            if (!(dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY)) {
-                count++;
-            }
-        }
-        return count;
-    }
-
     // Determines if inventory is considered low based on current and minimum stock
     boolean isLowStock(Integer currentStock, Integer minStock) {
         if (currentStock == null) {
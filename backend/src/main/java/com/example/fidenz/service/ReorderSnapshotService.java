@@ -0,0 +1,204 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ReorderRecommendationMapper;
+import com.example.fidenz.dto.ReorderRecommendationResponse;
+import com.example.fidenz.dto.ReorderSnapshot;
+import com.example.fidenz.entity.ReorderRecommendation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read model for reorder recommendations. Each store has a latest snapshot that is served as is, so
+ * reads do not depend on sales volume. Once it is older than reorder.snapshot.max-age (default 15
+ * minutes) it is still served, and one background recompute per store replaces it; only the first
+ * read of a store and explicit refreshes wait for a recompute. Snapshots are also rebuilt ahead of
+ * time by {@link ReorderBatchJob} when its schedule is configured.
+ */
+@Service
+public class ReorderSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorderSnapshotService.class);
+
+    private final ReorderService reorderService;
+    private final ReferenceDataCache referenceDataCache;
+    private final Duration maxAge;
+    private final Executor refreshExecutor;
+
+    private final Map<Long, ReorderSnapshot> snapshots = new ConcurrentHashMap<>();
+    // ReentrantLock rather than synchronized: a recompute waits on the database while holding it, which
+    // would pin a virtual thread to its carrier
+    private final Map<Long, ReentrantLock> storeLocks = new ConcurrentHashMap<>();
+    // stores with a background recompute queued or running
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ReorderSnapshotService(ReorderService reorderService, ReferenceDataCache referenceDataCache,
+                                  @Value("${reorder.snapshot.max-age:PT15M}") Duration maxAge) {
+        this(reorderService, referenceDataCache, maxAge,
+                Executors.newSingleThreadExecutor(new CustomizableThreadFactory("reorder-snapshot-")));
+    }
+
+    ReorderSnapshotService(ReorderService reorderService, ReferenceDataCache referenceDataCache, Duration maxAge,
+                           Executor refreshExecutor) {
+        this.reorderService = reorderService;
+        this.referenceDataCache = referenceDataCache;
+        this.maxAge = maxAge;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Latest snapshot for a store, recomputed first if there is none or refresh is set. A stale
+     * snapshot is returned as is and recomputed in the background.
+     *
+     * @param storeId The ID of the store.
+     * @param refresh Force a recompute.
+     * @return The snapshot to serve.
+     */
+    public ReorderSnapshot getSnapshot(Long storeId, boolean refresh) {
+        // unknown stores are rejected before a lock is created for them
+        referenceDataCache.getStore(storeId);
+
+        ReorderSnapshot current = snapshots.get(storeId);
+        if (!refresh && current != null) {
+            if (!isFresh(current)) {
+                refreshInBackground(storeId);
+            }
+            return current;
+        }
+
+        // One recompute per store at a time; callers that waited reuse the result
+        ReentrantLock lock = storeLock(storeId);
+        lock.lock();
+        try {
+            ReorderSnapshot latest = snapshots.get(storeId);
+            if (refresh ? latest != current && isFresh(latest) : latest != null) {
+                return latest;
+            }
+            return recompute(storeId, latest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recompute the snapshot of a store unconditionally.
+     */
+    public ReorderSnapshot refresh(Long storeId) {
+        return getSnapshot(storeId, true);
+    }
+
+    /**
+     * Patch the current snapshot of a store with re-evaluated recommendations for some of its products,
+     * without recomputing the rest. Products that were re-evaluated but no longer need a reorder are
+     * dropped. Keeps computedAt of the last full recompute, so max-age still bounds the staleness of the
+     * untouched products. Does nothing if the store has no snapshot yet.
+     *
+     * @param storeId         The ID of the store.
+     * @param productIds      The products that were re-evaluated.
+     * @param recommendations The new recommendations for those products.
+     */
+    public void applyUpdates(Long storeId, Collection<Long> productIds, List<ReorderRecommendation> recommendations) {
+        if (!snapshots.containsKey(storeId)) {
+            return;
+        }
+        ReentrantLock lock = storeLock(storeId);
+        lock.lock();
+        try {
+            ReorderSnapshot current = snapshots.get(storeId);
+            if (current == null) {
+                return;
+            }
+
+            Map<Long, ReorderRecommendationResponse> byProduct = new LinkedHashMap<>();
+            for (ReorderRecommendationResponse response : current.recommendations()) {
+                if (!productIds.contains(response.productId())) {
+                    byProduct.put(response.productId(), response);
+                }
+            }
+            for (ReorderRecommendationResponse response : ReorderRecommendationMapper.toResponseList(recommendations)) {
+                byProduct.put(response.productId(), response);
+            }
+
+            ReorderSnapshot patched = new ReorderSnapshot(storeId, current.version() + 1, current.computedAt(),
+                    List.copyOf(byProduct.values()));
+            snapshots.put(storeId, patched);
+            log.debug("Patched reorder snapshot of store {} to v{} for {} products",
+                    storeId, patched.version(), productIds.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void refreshInBackground(Long storeId) {
+        if (!refreshing.add(storeId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                ReentrantLock lock = storeLock(storeId);
+                lock.lock();
+                try {
+                    // a refresh or another background run may have replaced it meanwhile
+                    ReorderSnapshot latest = snapshots.get(storeId);
+                    if (!isFresh(latest)) {
+                        recompute(storeId, latest);
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Background recompute of the reorder snapshot of store {} failed: {}",
+                            storeId, e.getMessage(), e);
+                } finally {
+                    lock.unlock();
+                    refreshing.remove(storeId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(storeId);
+        }
+    }
+
+    private ReentrantLock storeLock(Long storeId) {
+        return storeLocks.computeIfAbsent(storeId, id -> new ReentrantLock());
+    }
+
+    private ReorderSnapshot recompute(Long storeId, ReorderSnapshot previous) {
+        List<ReorderRecommendation> recommendations = reorderService.generateReorderSuggestions(storeId);
+        long version = previous != null ? previous.version() + 1 : 1;
+        ReorderSnapshot snapshot = new ReorderSnapshot(storeId, version, LocalDateTime.now(),
+                List.copyOf(ReorderRecommendationMapper.toResponseList(recommendations)));
+        snapshots.put(storeId, snapshot);
+        log.debug("Stored reorder snapshot v{} for store {} with {} recommendations",
+                version, storeId, recommendations.size());
+        return snapshot;
+    }
+
+    private boolean isFresh(ReorderSnapshot snapshot) {
+        return snapshot != null
+                && Duration.between(snapshot.computedAt(), LocalDateTime.now()).compareTo(maxAge) < 0;
+    }
+}
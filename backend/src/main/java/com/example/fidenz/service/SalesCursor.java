@@ -0,0 +1,35 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.SalesTransactionResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a store's sales history, newest first: the (transaction_date, id) of the last row of a page.
+ * Clients only see it as an opaque token.
+ */
+record SalesCursor(LocalDateTime transactionDate, long id) {
+
+    static SalesCursor after(SalesTransactionResponse transaction) {
+        return new SalesCursor(transaction.transactionDate(), transaction.id());
+    }
+
+    String encode() {
+        String position = transactionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SalesCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new SalesCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Full sales history of a store written row by row, for reconciliation exports. Rows come from a
+ * database cursor and are detached once written, so memory use does not grow with the history.
+ */
+@Service
+public class SalesExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesExportService.class);
+
+    private static final String CSV_HEADER = "id,transaction_date,store_id,product_id,quantity,unit_price,total_amount";
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + format + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    private final SalesTransactionRepository salesTransactionRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityManager entityManager;
+    private final JsonFactory jsonFactory;
+
+    public SalesExportService(SalesTransactionRepository salesTransactionRepository,
+                              ReferenceDataCache referenceDataCache, EntityManager entityManager,
+                              ObjectMapper objectMapper) {
+        this.salesTransactionRepository = salesTransactionRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.entityManager = entityManager;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Check the store exists, so an unknown store is reported before the response is committed.
+     */
+    public void validateStore(Long storeId) {
+        referenceDataCache.getStore(storeId);
+    }
+
+    /**
+     * Write every sale of a store, oldest first, to the stream. The stream is flushed but not closed.
+     *
+     * @return The number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long storeId, Format format, OutputStream out) throws IOException {
+        try (Stream<SalesTransaction> sales = salesTransactionRepository.streamByStore(storeId)) {
+            Iterator<SalesTransaction> rows = sales.iterator();
+            long written = format == Format.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+            log.info("Exported {} sales of store {} as {}", written, storeId, format);
+            return written;
+        }
+    }
+
+    private long writeCsv(Iterator<SalesTransaction> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long written = 0;
+        while (rows.hasNext()) {
+            SalesTransaction sale = rows.next();
+            // product and store are uninitialized proxies; reading their id does not load them
+            writer.write(String.valueOf(sale.getId()));
+            writer.write(',');
+            writer.write(sale.getTransactionDate().toString());
+            writer.write(',');
+            writer.write(String.valueOf(sale.getStore().getId()));
+            writer.write(',');
+            writer.write(String.valueOf(sale.getProduct().getId()));
+            writer.write(',');
+            writer.write(String.valueOf(sale.getQuantity()));
+            writer.write(',');
+            writer.write(sale.getUnitPrice().toPlainString());
+            writer.write(',');
+            writer.write(sale.getTotalAmount().toPlainString());
+            writer.write('\n');
+            entityManager.detach(sale);
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    private long writeNdjson(Iterator<SalesTransaction> rows, OutputStream out) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // one object per line: the newline is written after each row instead of Jackson's space separator
+        json.setRootValueSeparator(null);
+        long written = 0;
+        while (rows.hasNext()) {
+            SalesTransaction sale = rows.next();
+            json.writeStartObject();
+            json.writeNumberField("id", sale.getId());
+            json.writeStringField("transactionDate", sale.getTransactionDate().toString());
+            json.writeNumberField("storeId", sale.getStore().getId());
+            json.writeNumberField("productId", sale.getProduct().getId());
+            json.writeNumberField("quantity", sale.getQuantity());
+            json.writeNumberField("unitPrice", sale.getUnitPrice());
+            json.writeNumberField("totalAmount", sale.getTotalAmount());
+            json.writeEndObject();
+            json.writeRaw('\n');
+            entityManager.detach(sale);
+            written++;
+        }
+        json.flush();
+        return written;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.DailyProductSales;
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.DailySalesRollup;
+import com.example.fidenz.entity.DailySalesRollupId;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.repository.DailySalesRollupRepository;
+import com.example.fidenz.repository.SalesBatchRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains and reads the daily sales rollup (one row per store, product and day).
+ * Analytics over N days read at most N rows per product from here instead of every transaction.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final SalesTransactionRepository salesTransactionRepository;
+    private final SalesBatchRepository salesBatchRepository;
+
+    public SalesRollupService(DailySalesRollupRepository dailySalesRollupRepository,
+                              SalesTransactionRepository salesTransactionRepository,
+                              SalesBatchRepository salesBatchRepository) {
+        this.dailySalesRollupRepository = dailySalesRollupRepository;
+        this.salesTransactionRepository = salesTransactionRepository;
+        this.salesBatchRepository = salesBatchRepository;
+    }
+
+    /**
+     * Add a recorded sale to its day row. Runs in the caller's transaction so the rollup
+     * never diverges from sales_transactions.
+     */
+    @Transactional
+    public void recordSale(SalesTransaction transaction) {
+        LocalDate salesDate = transaction.getTransactionDate().toLocalDate();
+        dailySalesRollupRepository.addSale(
+                transaction.getStore().getId(),
+                transaction.getProduct().getId(),
+                salesDate,
+                transaction.getQuantity(),
+                transaction.getTotalAmount(),
+                isWeekday(salesDate));
+    }
+
+    /**
+     * Add many recorded sales at once: sales of the same store, product and day are summed first
+     * and the day rows are upserted in one JDBC batch.
+     */
+    @Transactional
+    public void recordSales(List<SalesTransaction> transactions) {
+        Map<DailySalesRollupId, DailySalesRollup> days = new LinkedHashMap<>();
+        for (SalesTransaction transaction : transactions) {
+            LocalDate salesDate = transaction.getTransactionDate().toLocalDate();
+            DailySalesRollupId id = new DailySalesRollupId(
+                    transaction.getStore().getId(), transaction.getProduct().getId(), salesDate);
+            DailySalesRollup day = days.computeIfAbsent(id, key -> DailySalesRollup.builder()
+                    .id(key)
+                    .quantity(0L)
+                    .revenue(BigDecimal.ZERO)
+                    .transactionCount(0L)
+                    .weekday(isWeekday(salesDate))
+                    .build());
+            day.setQuantity(day.getQuantity() + transaction.getQuantity());
+            day.setRevenue(day.getRevenue().add(transaction.getTotalAmount()));
+            day.setTransactionCount(day.getTransactionCount() + 1);
+        }
+        salesBatchRepository.addToRollup(new ArrayList<>(days.values()));
+    }
+
+    /**
+     * Rebuild the rollup of one store from its full sales history.
+     *
+     * @param storeId The ID of the store.
+     * @return The number of day rows written.
+     */
+    @Transactional
+    public int backfillStore(Long storeId) {
+        int removed = dailySalesRollupRepository.deleteByStoreId(storeId);
+        List<DailyProductSales> days = salesTransactionRepository.summarizeDailySalesByProduct(storeId);
+
+        List<DailySalesRollup> rollups = new ArrayList<>(days.size());
+        for (DailyProductSales day : days) {
+            rollups.add(DailySalesRollup.builder()
+                    .id(new DailySalesRollupId(storeId, day.productId(), day.salesDate()))
+                    .quantity(day.quantity())
+                    .revenue(day.revenue())
+                    .transactionCount(day.transactionCount())
+                    .weekday(isWeekday(day.salesDate()))
+                    .build());
+        }
+        dailySalesRollupRepository.saveAll(rollups);
+
+        log.info("Rebuilt sales rollup for store {}: removed {} rows, wrote {} rows", storeId, removed, rollups.size());
+        return rollups.size();
+    }
+
+    /**
+     * Per-product sales aggregates for whole days from startDate to endDate inclusive.
+     */
+    public List<ProductSalesSummary> summarizeSalesByProduct(Long storeId, LocalDate startDate, LocalDate endDate) {
+        return dailySalesRollupRepository.summarizeSalesByProduct(storeId, startDate, endDate);
+    }
+
+    /**
+     * Same as {@link #summarizeSalesByProduct(Long, LocalDate, LocalDate)} for the given products only.
+     */
+    public List<ProductSalesSummary> summarizeSalesForProducts(Long storeId, Collection<Long> productIds,
+                                                               LocalDate startDate, LocalDate endDate) {
+        return dailySalesRollupRepository.summarizeSalesForProducts(storeId, productIds, startDate, endDate);
+    }
+
+    /**
+     * Revenue per product for whole days from startDate to endDate inclusive.
+     */
+    public List<ProductRevenue> sumRevenueByProduct(Long storeId, LocalDate startDate, LocalDate endDate) {
+        return dailySalesRollupRepository.sumRevenueByProduct(storeId, startDate, endDate);
+    }
+
+    static boolean isWeekday(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return !(dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY);
+    }
+}
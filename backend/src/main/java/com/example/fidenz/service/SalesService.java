@@ -1,58 +1,93 @@
 package com.example.fidenz.service;
 
+import com.example.fidenz.dto.CursorPage;
+import com.example.fidenz.dto.SalesBatchLineResult;
+import com.example.fidenz.dto.SalesBatchResponse;
 import com.example.fidenz.dto.SalesTransactionRequest;
-import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.dto.SalesTransactionResponse;
 import com.example.fidenz.entity.Product;
 import com.example.fidenz.entity.SalesTransaction;
 import com.example.fidenz.entity.Store;
+import com.example.fidenz.event.StockChangedEvent;
 import com.example.fidenz.exception.EntityNotFoundException;
 import com.example.fidenz.repository.InventoryRepository;
 import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesBatchRepository;
+import com.example.fidenz.repository.SalesBatchRepository.InventoryStock;
+import com.example.fidenz.repository.SalesBatchRepository.StockUpdate;
 import com.example.fidenz.repository.SalesTransactionRepository;
 import com.example.fidenz.repository.StoreRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.fidenz.util.InventoryUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class SalesService {
 
     private static final Logger log = LoggerFactory.getLogger(SalesService.class);
 
+    // lower bound of the full history listing, below any stored transaction date
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final SalesTransactionRepository salesTransactionRepository;
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesBatchRepository salesBatchRepository;
+    private final StockLedger stockLedger;
+    private final ReferenceDataCache referenceDataCache;
+    private final int maxBatchSize;
+    private final int maxPageSize;
 
     public SalesService(SalesTransactionRepository salesTransactionRepository, InventoryRepository inventoryRepository,
-                       ProductRepository productRepository, StoreRepository storeRepository) {
+                       ProductRepository productRepository, StoreRepository storeRepository,
+                       SalesRollupService salesRollupService, ApplicationEventPublisher eventPublisher,
+                       SalesBatchRepository salesBatchRepository, StockLedger stockLedger,
+                       ReferenceDataCache referenceDataCache,
+                       @Value("${sales.batch.max-size:5000}") int maxBatchSize,
+                       @Value("${sales.page.max-size:1000}") int maxPageSize) {
         this.salesTransactionRepository = salesTransactionRepository;
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
         this.storeRepository = storeRepository;
+        this.salesRollupService = salesRollupService;
+        this.eventPublisher = eventPublisher;
+        this.salesBatchRepository = salesBatchRepository;
+        this.stockLedger = stockLedger;
+        this.referenceDataCache = referenceDataCache;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @Transactional
     public SalesTransaction recordSale(SalesTransactionRequest request) {
-        // Validate product and store exist
-        Product product = productRepository.findById(request.productId())
-                .orElseThrow(() -> new EntityNotFoundException("Product", request.productId()));
-        
-        Store store = storeRepository.findById(request.storeId())
-                .orElseThrow(() -> new EntityNotFoundException("Store", request.storeId()));
-
-        // Check inventory availability
-        Inventory inventory = inventoryRepository.findByProductAndStore(product, store)
-                .orElseThrow(() -> new EntityNotFoundException("Inventory not found for this product and store"));
+        // Validate product and store exist; both rarely change, so they come from the cache
+        Product product = referenceDataCache.getProduct(request.productId());
+        Store store = referenceDataCache.getStore(request.storeId());
 
-        if (inventory.getCurrentStock() < request.quantity()) {
-            throw new IllegalArgumentException("Insufficient stock. Available: " + inventory.getCurrentStock());
+        // the database path does not read the new level back; listeners that need it look it up after commit
+        Integer remainingStock = null;
+        if (stockLedger.isEnabled()) {
+            remainingStock = takeFromLedger(store.getId(), product.getId(), request.quantity());
+        } else {
+            takeFromInventory(store.getId(), product.getId(), request.quantity());
         }
 
         // Calculate total amount
@@ -70,20 +105,214 @@ public class SalesService {
 
         // Save transaction
         SalesTransaction savedTransaction = salesTransactionRepository.save(transaction);
+        salesRollupService.recordSale(savedTransaction);
 
-        // Update inventory using util helper
-        inventory.setCurrentStock(InventoryUtils.decrementStock(inventory.getCurrentStock(), request.quantity()));
-        inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new StockChangedEvent(store.getId(), product.getId(),
+                remainingStock, StockChangedEvent.ChangeType.SALE));
 
         return savedTransaction;
     }
 
-    public List<SalesTransaction> getSalesByStore(Long storeId) {
-        return salesTransactionRepository.findByStoreId(storeId);
+    // Check and take the stock in one conditional update, so two concurrent sales cannot both pass
+    // the check; the update holds the row lock until commit, and a successful sale issues no other statement
+    private void takeFromInventory(Long storeId, Long productId, int quantity) {
+        if (inventoryRepository.decrementStock(storeId, productId, quantity, LocalDateTime.now()) == 0) {
+            Integer available = inventoryRepository.findCurrentStock(storeId, productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Inventory not found for this product and store"));
+            throw new IllegalArgumentException("Insufficient stock. Available: " + available);
+        }
+    }
+
+    private int takeFromLedger(Long storeId, Long productId, int quantity) {
+        int remaining = stockLedger.take(storeId, productId, quantity);
+        if (remaining < 0) {
+            int available = stockLedger.available(storeId, productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Inventory not found for this product and store"));
+            throw new IllegalArgumentException("Insufficient stock. Available: " + available);
+        }
+        return remaining;
+    }
+
+    /**
+     * Record many sales in one transaction, e.g. a POS end-of-day sync. Products, stores and stock are
+     * read up front (stock rows locked), each line is checked against the stock left after the lines
+     * before it, and the accepted lines are written with JDBC batches. Rejected lines change nothing
+     * and are reported with their reason.
+     *
+     * @param requests The sales in the order they happened.
+     * @return One result per request line.
+     */
+    @Transactional
+    public SalesBatchResponse recordSales(List<SalesTransactionRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can contain at most " + maxBatchSize + " sales");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> storeIds = new HashSet<>();
+        for (SalesTransactionRequest request : requests) {
+            if (request != null && request.productId() != null && request.storeId() != null) {
+                productIds.add(request.productId());
+                storeIds.add(request.storeId());
+            }
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+        Map<Long, Store> stores = new HashMap<>();
+        storeRepository.findAllById(storeIds).forEach(store -> stores.put(store.getId(), store));
+        Map<StockKey, InventoryStock> inventoryByStoreAndProduct = new HashMap<>();
+        for (InventoryStock stock : salesBatchRepository.lockInventory(storeIds, productIds)) {
+            inventoryByStoreAndProduct.put(new StockKey(stock.storeId(), stock.productId()), stock);
+        }
+
+        // stock left per inventory row after the lines accepted so far
+        Map<Long, Integer> remainingStock = new LinkedHashMap<>();
+        Map<Long, InventoryStock> touchedInventory = new LinkedHashMap<>();
+        List<SalesTransaction> acceptedSales = new ArrayList<>();
+        List<Integer> acceptedLines = new ArrayList<>();
+        List<Integer> stockAfterLine = new ArrayList<>();
+        SalesBatchLineResult[] results = new SalesBatchLineResult[requests.size()];
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            SalesTransactionRequest request = requests.get(i);
+            String error = validateLine(request);
+            if (error != null) {
+                results[i] = SalesBatchLineResult.rejected(i, error);
+                continue;
+            }
+            Product product = products.get(request.productId());
+            if (product == null) {
+                results[i] = SalesBatchLineResult.rejected(i,
+                        new EntityNotFoundException("Product", request.productId()).getMessage());
+                continue;
+            }
+            Store store = stores.get(request.storeId());
+            if (store == null) {
+                results[i] = SalesBatchLineResult.rejected(i,
+                        new EntityNotFoundException("Store", request.storeId()).getMessage());
+                continue;
+            }
+            InventoryStock inventory = inventoryByStoreAndProduct.get(new StockKey(store.getId(), product.getId()));
+            if (inventory == null) {
+                results[i] = SalesBatchLineResult.rejected(i, "Inventory not found for this product and store");
+                continue;
+            }
+            int available = remainingStock.getOrDefault(inventory.id(), inventory.currentStock());
+            if (available < request.quantity()) {
+                results[i] = SalesBatchLineResult.rejected(i, "Insufficient stock. Available: " + available);
+                continue;
+            }
+            // the row does not include sales still buffered in the ledger, so the ledger has the last word
+            if (stockLedger.isEnabled()
+                    && stockLedger.reserve(store.getId(), product.getId(), request.quantity()) < 0) {
+                results[i] = SalesBatchLineResult.rejected(i, "Insufficient stock. Available: "
+                        + stockLedger.available(store.getId(), product.getId()).orElse(0));
+                continue;
+            }
+
+            int newStock = InventoryUtils.decrementStock(available, request.quantity());
+            remainingStock.put(inventory.id(), newStock);
+            touchedInventory.put(inventory.id(), inventory);
+            acceptedSales.add(SalesTransaction.builder()
+                    .product(product)
+                    .store(store)
+                    .quantity(request.quantity())
+                    .unitPrice(request.unitPrice())
+                    .totalAmount(request.unitPrice().multiply(BigDecimal.valueOf(request.quantity())))
+                    .transactionDate(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            acceptedLines.add(i);
+            stockAfterLine.add(newStock);
+        }
+
+        salesBatchRepository.insertAll(acceptedSales);
+        salesRollupService.recordSales(acceptedSales);
+        List<StockUpdate> stockUpdates = new ArrayList<>();
+        remainingStock.forEach((inventoryId, stock) -> stockUpdates.add(new StockUpdate(inventoryId, stock)));
+        salesBatchRepository.updateStock(stockUpdates, now);
+
+        for (int j = 0; j < acceptedSales.size(); j++) {
+            int line = acceptedLines.get(j);
+            results[line] = SalesBatchLineResult.accepted(line, acceptedSales.get(j).getId(), stockAfterLine.get(j));
+        }
+        Map<Long, List<Long>> soldProductsByStore = new HashMap<>();
+        for (InventoryStock inventory : touchedInventory.values()) {
+            soldProductsByStore.computeIfAbsent(inventory.storeId(), id -> new ArrayList<>()).add(inventory.productId());
+        }
+        // registered before the events, so their after-commit listeners see the reloaded ledger
+        if (stockLedger.isEnabled()) {
+            soldProductsByStore.forEach(stockLedger::stockSold);
+        }
+        for (InventoryStock inventory : touchedInventory.values()) {
+            eventPublisher.publishEvent(new StockChangedEvent(inventory.storeId(), inventory.productId(),
+                    remainingStock.get(inventory.id()), StockChangedEvent.ChangeType.SALE));
+        }
+
+        log.info("Recorded sales batch: {} received, {} accepted", requests.size(), acceptedSales.size());
+        return new SalesBatchResponse(requests.size(), acceptedSales.size(),
+                requests.size() - acceptedSales.size(), List.of(results));
+    }
+
+    // Field checks that @Valid does for single sales; null when the line is well-formed
+    private static String validateLine(SalesTransactionRequest request) {
+        if (request == null) {
+            return "Sale must not be null";
+        }
+        if (request.productId() == null || request.storeId() == null) {
+            return "productId and storeId are required";
+        }
+        if (request.quantity() == null || request.quantity() <= 0) {
+            return "quantity must be greater than 0";
+        }
+        if (request.unitPrice() == null || request.unitPrice().signum() <= 0) {
+            return "unitPrice must be greater than 0";
+        }
+        return null;
+    }
+
+    /**
+     * One page of a store's sales, newest first.
+     *
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param size   Rows per page, at most sales.page.max-size.
+     */
+    public CursorPage<SalesTransactionResponse> getSalesByStore(Long storeId, String cursor, int size) {
+        return getSalesPage(storeId, HISTORY_START, cursor, size);
+    }
+
+    /**
+     * One page of a store's sales of the last days, newest first.
+     */
+    public CursorPage<SalesTransactionResponse> getRecentSalesByStore(Long storeId, int days, String cursor, int size) {
+        return getSalesPage(storeId, LocalDateTime.now().minusDays(days), cursor, size);
     }
 
-    public List<SalesTransaction> getRecentSalesByStore(Long storeId, int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        return salesTransactionRepository.findRecentSalesByStore(storeId, startDate);
+    // Keyset pagination: one more row than asked tells whether there is a next page, and the next page
+    // seeks past the last row instead of skipping an offset
+    private CursorPage<SalesTransactionResponse> getSalesPage(Long storeId, LocalDateTime startDate, String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        Limit limit = Limit.of(size + 1);
+        List<SalesTransactionResponse> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = salesTransactionRepository.findPageByStore(storeId, startDate, limit);
+        } else {
+            SalesCursor after = SalesCursor.decode(cursor);
+            rows = salesTransactionRepository.findPageByStoreAfter(storeId, startDate,
+                    after.transactionDate(), after.id(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<SalesTransactionResponse> page = rows.subList(0, size);
+        return new CursorPage<>(page, SalesCursor.after(page.get(size - 1)).encode());
     }
+
+    private record StockKey(Long storeId, Long productId) {}
 }
@@ -0,0 +1,466 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.StockLedgerRepository;
+import com.example.fidenz.repository.StockLedgerRepository.StockDelta;
+import com.example.fidenz.repository.StockLedgerRepository.StockLevel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional in-memory stock ledger (inventory.ledger.enabled) that takes the availability check of
+ * single sales off the hot inventory rows. Each (store, product) has its own slot in a concurrent
+ * map, updated with compare-and-set, so sales of different SKUs never contend and sales of the
+ * same SKU spin instead of queueing on a database row lock.
+ *
+ * Durability (inventory.ledger.durability):
+ * <ul>
+ *   <li>BATCHED - sales are buffered per slot and written back as relative decrements every
+ *       inventory.ledger.flush-interval. A crash loses at most one interval of decrements; the sales
+ *       themselves are stored synchronously, so the stock can be recounted from them.</li>
+ *   <li>SYNC - every sale is also written to the inventory row inside its own transaction; the ledger
+ *       only rejects sales that cannot succeed before they reach the database.</li>
+ * </ul>
+ *
+ * The ledger is rebuilt from the inventory table on startup. Stock written by other paths (manual
+ * adjustments, batch ingestion) goes to the database as before and the affected slots are reloaded
+ * once that write commits. Those paths check stock against the database, which does not see sales
+ * still buffered here, so the units they take are also reserved in the ledger first. A transaction
+ * that sets stock to absolute values holds off write-backs until it completes (beginAdjustment), so
+ * the sales its count already includes can be told apart from those made after it.
+ *
+ * Metric: inventory.ledger.dirty (slots with sales not yet written back).
+ */
+@Service
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    public enum Durability { BATCHED, SYNC }
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventorySnapshotCache inventorySnapshotCache;
+    private final boolean enabled;
+    private final Durability durability;
+
+    private final Map<StockKey, Slot> slots = new ConcurrentHashMap<>();
+    private final Set<StockKey> dirty = ConcurrentHashMap.newKeySet();
+    // held while pending sales are written back or slots are reloaded, so a reload never sees a
+    // database value that misses a write-back already drained from the slot
+    private final ReentrantLock writeBackLock = new ReentrantLock();
+
+    public StockLedger(StockLedgerRepository stockLedgerRepository, InventoryRepository inventoryRepository,
+                       InventorySnapshotCache inventorySnapshotCache, MeterRegistry meterRegistry,
+                       @Value("${inventory.ledger.enabled:false}") boolean enabled,
+                       @Value("${inventory.ledger.durability:BATCHED}") Durability durability) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventorySnapshotCache = inventorySnapshotCache;
+        this.enabled = enabled;
+        this.durability = durability;
+
+        Gauge.builder("inventory.ledger.dirty", dirty, Set::size)
+                .description("Inventory rows with sales not yet written back")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuild the ledger from the inventory table. Slots already loaded on demand are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        List<StockLevel> levels = stockLedgerRepository.loadAll();
+        for (StockLevel level : levels) {
+            slots.putIfAbsent(new StockKey(level.storeId(), level.productId()), new Slot(level.currentStock()));
+        }
+        log.info("Stock ledger loaded {} inventory rows ({} durability)", levels.size(), durability);
+    }
+
+    /**
+     * Take quantity units if that many are available. Inside a transaction the units are given back
+     * if it rolls back.
+     *
+     * @return The stock left, or -1 if the stock is insufficient or the product is not stocked in the store.
+     */
+    public int take(Long storeId, Long productId, int quantity) {
+        StockKey key = new StockKey(storeId, productId);
+        Slot slot = slot(key);
+        if (slot == null) {
+            return -1;
+        }
+        boolean buffered = durability == Durability.BATCHED;
+        Slot.State taken = slot.take(quantity, buffered);
+        if (taken == null) {
+            return -1;
+        }
+
+        if (!buffered && inventoryRepository.decrementStock(storeId, productId, quantity, LocalDateTime.now()) == 0) {
+            // the row holds less than the ledger, e.g. it was changed without going through it
+            slot.giveBack(quantity, false, taken.sequence());
+            inventoryRepository.findCurrentStock(storeId, productId).ifPresent(slot::reset);
+            return -1;
+        }
+        if (buffered) {
+            dirty.add(key);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        slot.giveBack(quantity, buffered, taken.sequence());
+                        if (buffered) {
+                            dirty.add(key);
+                        }
+                    }
+                }
+            });
+        }
+        return taken.available();
+    }
+
+    /**
+     * Reserve quantity units for a write that takes them from the inventory row itself (batch sales,
+     * stock moved out by an adjustment), so they cannot also be sold here before the slot is reloaded
+     * after that write commits. Nothing is buffered for write-back. Inside a transaction the units are
+     * given back if it rolls back.
+     *
+     * @return The stock left, or -1 if the stock is insufficient or the product is not stocked in the store.
+     */
+    public int reserve(Long storeId, Long productId, int quantity) {
+        Slot slot = slot(new StockKey(storeId, productId));
+        if (slot == null) {
+            return -1;
+        }
+        Slot.State taken = slot.take(quantity, false);
+        if (taken == null) {
+            return -1;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        slot.giveBack(quantity, false, taken.sequence());
+                    }
+                }
+            });
+        }
+        return taken.available();
+    }
+
+    /**
+     * Units available in the ledger, empty if the product is not stocked in the store.
+     */
+    public OptionalInt available(Long storeId, Long productId) {
+        Slot slot = slot(new StockKey(storeId, productId));
+        return slot == null ? OptionalInt.empty() : OptionalInt.of(slot.available());
+    }
+
+    /**
+     * Start a transaction that sets stock to absolute values. Call it before the transaction locks
+     * or writes any inventory row: write-backs are held off until it completes, so none can be left
+     * waiting on those rows while holding the lock stockAdjusted needs, and none lands on top of the
+     * new values with sales the count already includes.
+     */
+    public void beginAdjustment() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        writeBackLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writeBackLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Record that stock was set to an absolute value in the database. The units buffered now are
+     * part of the new value and are dropped once it commits; sales taken from here on stay due. The
+     * slots are reloaded after the commit. Inside a transaction, beginAdjustment must have been called.
+     */
+    public void stockAdjusted(Long storeId, Collection<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeBackLock.lock();
+            try {
+                cut(storeId, productIds).forEach(Slot::commitCut);
+                reload(storeId, productIds);
+            } finally {
+                writeBackLock.unlock();
+            }
+            return;
+        }
+        if (!writeBackLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("beginAdjustment must be called before stock is adjusted");
+        }
+        Map<Slot, Integer> cuts = cut(storeId, productIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cuts.forEach(Slot::commitCut);
+                reload(storeId, productIds);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    cuts.keySet().forEach(Slot::rollbackCut);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reload the slots after stock was decremented in the database by another path. Sales buffered
+     * here are kept and still written back.
+     */
+    public void stockSold(Long storeId, Collection<Long> productIds) {
+        afterCommit(() -> reload(storeId, productIds));
+    }
+
+    /**
+     * Write the buffered sales back to the inventory table. On failure they stay buffered for the
+     * next flush.
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:200}")
+    public void flush() {
+        if (!enabled || durability != Durability.BATCHED || dirty.isEmpty()) {
+            return;
+        }
+        writeBackLock.lock();
+        try {
+            List<StockDelta> deltas = new ArrayList<>();
+            for (StockKey key : dirty) {
+                // unmark before draining, so a sale taken in between marks the slot again
+                dirty.remove(key);
+                int pending = slots.get(key).drainPending();
+                if (pending != 0) {
+                    deltas.add(new StockDelta(key.storeId(), key.productId(), pending));
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                stockLedgerRepository.subtractAll(deltas, LocalDateTime.now());
+                // the inventory rows only change now, so cached listings of these stores are out of date
+                inventorySnapshotCache.storesChanged(deltas.stream().map(StockDelta::storeId).distinct().toList());
+            } catch (RuntimeException e) {
+                for (StockDelta delta : deltas) {
+                    StockKey key = new StockKey(delta.storeId(), delta.productId());
+                    slots.get(key).addPending(delta.quantity());
+                    dirty.add(key);
+                }
+                log.error("Stock ledger write-back of {} inventory rows failed: {}", deltas.size(), e.getMessage());
+            }
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    int dirtyCount() {
+        return dirty.size();
+    }
+
+    // Slot of the key, loaded from the database if it was created after startup
+    private Slot slot(StockKey key) {
+        if (!enabled) {
+            throw new IllegalStateException("Stock ledger is disabled");
+        }
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        List<StockLevel> levels = stockLedgerRepository.loadStock(key.storeId(), List.of(key.productId()));
+        if (levels.isEmpty()) {
+            return null;
+        }
+        return slots.computeIfAbsent(key, k -> new Slot(levels.get(0).currentStock()));
+    }
+
+    // Units pending in each loaded slot at the cut; called with writeBackLock held, so none is being written back
+    private Map<Slot, Integer> cut(Long storeId, Collection<Long> productIds) {
+        Map<Slot, Integer> cuts = new HashMap<>();
+        for (Long productId : productIds) {
+            Slot slot = slots.get(new StockKey(storeId, productId));
+            if (slot != null) {
+                cuts.put(slot, slot.openCut());
+            }
+        }
+        return cuts;
+    }
+
+    private void reload(Long storeId, Collection<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        writeBackLock.lock();
+        try {
+            for (StockLevel level : stockLedgerRepository.loadStock(storeId, productIds)) {
+                StockKey key = new StockKey(level.storeId(), level.productId());
+                slots.computeIfAbsent(key, k -> new Slot(level.currentStock())).reload(level.currentStock());
+            }
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record StockKey(Long storeId, Long productId) {}
+
+    /**
+     * Available stock and units sold but not yet written back, swapped together with compare-and-set.
+     * Invariant: available = stored stock - pending.
+     *
+     * An absolute adjustment cuts the slot: the units pending at the cut are part of the count it
+     * stores, so they are dropped when it commits, while sales taken after it stay pending. Each take
+     * carries the cut sequence it was made under. A sale taken before a committed cut that rolls back
+     * later gives nothing back, since the count already includes its units; one that rolls back while
+     * the cut is still open has its pending units held until the adjustment commits or rolls back.
+     */
+    static final class Slot {
+
+        /**
+         * @param sequence     Incremented by every cut; a take remembers the value it was made under.
+         * @param committedCut Sequence of the last committed cut; takes from before it are in the stored stock.
+         * @param openCut      Sequence of the cut whose adjustment has not completed yet, -1 if none.
+         * @param heldBack     Pending units given back by rollbacks of takes from before the open cut.
+         */
+        record State(int available, int pending, int sequence, int committedCut, int openCut, int heldBack) {
+
+            private State withStock(int available, int pending) {
+                return new State(available, pending, sequence, committedCut, openCut, heldBack);
+            }
+        }
+
+        private final AtomicReference<State> state;
+
+        Slot(int available) {
+            this.state = new AtomicReference<>(new State(available, 0, 0, 0, -1, 0));
+        }
+
+        int available() {
+            return state.get().available();
+        }
+
+        int pending() {
+            return state.get().pending();
+        }
+
+        // The state after the take, or null if fewer than quantity units are available
+        State take(int quantity, boolean buffered) {
+            while (true) {
+                State current = state.get();
+                if (current.available() < quantity) {
+                    return null;
+                }
+                State next = current.withStock(current.available() - quantity,
+                        buffered ? current.pending() + quantity : current.pending());
+                if (state.compareAndSet(current, next)) {
+                    return next;
+                }
+            }
+        }
+
+        void giveBack(int quantity, boolean buffered, int takenUnder) {
+            int pendingQuantity = buffered ? quantity : 0;
+            state.updateAndGet(s -> {
+                if (takenUnder < s.committedCut()) {
+                    return s;
+                }
+                if (s.openCut() >= 0 && takenUnder < s.openCut()) {
+                    return new State(s.available() + quantity, s.pending(), s.sequence(), s.committedCut(),
+                            s.openCut(), s.heldBack() + pendingQuantity);
+                }
+                // pending may go negative if the sale was already written back; the next flush adds it back
+                return s.withStock(s.available() + quantity, s.pending() - pendingQuantity);
+            });
+        }
+
+        int drainPending() {
+            return state.getAndUpdate(s -> s.withStock(s.available(), 0)).pending();
+        }
+
+        void addPending(int quantity) {
+            state.updateAndGet(s -> s.withStock(s.available(), s.pending() + quantity));
+        }
+
+        void reload(int storedStock) {
+            state.updateAndGet(s -> s.withStock(storedStock - s.pending(), s.pending()));
+        }
+
+        void reset(int storedStock) {
+            state.updateAndGet(s -> s.withStock(storedStock, 0));
+        }
+
+        // Returns the units pending at the cut; a second cut before the first completes adds none
+        int openCut() {
+            State previous = state.getAndUpdate(s -> s.openCut() >= 0 ? s
+                    : new State(s.available(), s.pending(), s.sequence() + 1, s.committedCut(), s.sequence() + 1, 0));
+            return previous.openCut() >= 0 ? 0 : previous.pending();
+        }
+
+        void commitCut(int pendingAtCut) {
+            state.updateAndGet(s -> s.openCut() < 0 ? s.withStock(s.available(), s.pending() - pendingAtCut)
+                    : new State(s.available(), s.pending() - pendingAtCut, s.sequence(), s.openCut(), -1, 0));
+        }
+
+        void rollbackCut() {
+            state.updateAndGet(s -> s.openCut() < 0 ? s
+                    : new State(s.available(), s.pending() - s.heldBack(), s.sequence(), s.committedCut(), -1, 0));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.fidenz.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache with a time-to-live per entry and approximately least-recently-used
+ * eviction (second chance) once maxSize entries are held. Reads take no lock. Concurrent misses on
+ * a key share one load; a load that overlapped an invalidation of its key is returned to its
+ * callers but not stored, and invalidating one key leaves loads of other keys alone. A loader must
+ * not read its own key from the same cache.
+ *
+ * Publishes cache.gets (tagged result=hit|miss) and cache.size, tagged with the cache name. A
+ * lookup that waits for another caller's load in progress counts as a miss.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    // a key's node is replaced on reload and removed on invalidation, so a finished load is stored
+    // only if its node is still the one mapped
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    // nodes in insertion order for eviction; may hold nodes already replaced or removed
+    private final ArrayDeque<Node<K, V>> evictionQueue = new ArrayDeque<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public BoundedTtlCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this(name, maxSize, ttl, meterRegistry, System::nanoTime);
+    }
+
+    BoundedTtlCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .description("Cache lookups that found a live entry")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that had to load the value or wait for its load")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size).tag("cache", name)
+                .description("Entries currently held")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached value for key, loading and storing it if absent or expired. Callers that miss
+     * while the key is already loading wait for that load instead of starting another.
+     * Exceptions from the loader propagate to every waiting caller and nothing is stored.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        while (true) {
+            Node<K, V> node = entries.get(key);
+            if (node != null && !isExpired(node)) {
+                (node.value.isDone() ? hits : misses).increment();
+                if (!node.referenced) {
+                    node.referenced = true;
+                }
+                return join(node.value);
+            }
+            Node<K, V> loading = new Node<>(key);
+            boolean claimed = node == null
+                    ? entries.putIfAbsent(key, loading) == null
+                    : entries.replace(key, node, loading);
+            if (claimed) {
+                return load(loading, loader);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public void clear() {
+        entries.clear();
+        synchronized (evictionQueue) {
+            evictionQueue.clear();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private V load(Node<K, V> node, Function<? super K, ? extends V> loader) {
+        misses.increment();
+        enqueue(node);
+        V value;
+        try {
+            value = loader.apply(node.key);
+        } catch (RuntimeException | Error e) {
+            entries.remove(node.key, node);
+            node.value.completeExceptionally(e);
+            throw e;
+        }
+        node.storedAt = nanoClock.getAsLong();
+        node.value.complete(value);
+        return value;
+    }
+
+    private void enqueue(Node<K, V> node) {
+        synchronized (evictionQueue) {
+            evictionQueue.addLast(node);
+            // two passes at most: the first clears reference bits, the second evicts; dead nodes are
+            // dropped as they come up, and once they outnumber the live ones
+            int budget = 2 * evictionQueue.size();
+            while (budget-- > 0 && (entries.size() > maxSize || evictionQueue.size() > 2 * maxSize)) {
+                Node<K, V> candidate = evictionQueue.pollFirst();
+                if (entries.get(candidate.key) != candidate) {
+                    continue;
+                }
+                if (entries.size() <= maxSize || !candidate.value.isDone()) {
+                    evictionQueue.addLast(candidate);
+                } else if (candidate.referenced) {
+                    candidate.referenced = false;
+                    evictionQueue.addLast(candidate);
+                } else {
+                    entries.remove(candidate.key, candidate);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node) {
+        return node.value.isDone() && nanoClock.getAsLong() - node.storedAt >= ttlNanos;
+    }
+
+    private static <V> V join(CompletableFuture<V> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+        // written before value completes, so a reader that sees it done sees the store time
+        private volatile long storedAt;
+        private volatile boolean referenced;
+
+        private Node(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.fidenz.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point helpers for scaled long values (cents, hundredths, ten-thousandths).
+ * Rounding matches {@link java.math.RoundingMode#HALF_UP} so results agree with the
+ * equivalent BigDecimal computation; conversion to BigDecimal happens only at the
+ * DTO and entity boundary.
+ */
+public final class FixedPointMath {
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private FixedPointMath() {}
+
+    public static long pow10(int scale) {
+        return POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Divide and round half away from zero, like BigDecimal HALF_UP.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        if (absRemainder >= absDivisor - absRemainder) {
+            quotient += ((dividend < 0) == (divisor < 0)) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Unscaled value of a decimal at the given scale, e.g. 12.34 at scale 2 is 1234.
+     * Throws ArithmeticException if the value has more fraction digits than the scale.
+     */
+    public static long toScaled(BigDecimal value, int scale) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
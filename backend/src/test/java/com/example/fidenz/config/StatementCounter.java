@@ -0,0 +1,85 @@
+package com.example.fidenz.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test helper that wraps the application DataSource and counts every statement execution
+ * (execute, executeQuery, executeUpdate, executeBatch) - one count per database round trip.
+ * Import it into a Spring test with {@code @Import(StatementCounter.class)}.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private final AtomicLong executions = new AtomicLong();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    public void reset() {
+        executions.set(0);
+    }
+
+    public long count() {
+        return executions.get();
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password), Connection.class);
+        }
+    }
+
+    private <T> T wrap(T target, Class<T> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement
+                    && (method.getName().startsWith("prepare") || method.getName().equals("createStatement"))) {
+                return wrapStatement(result, method.getReturnType());
+            }
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                executions.incrementAndGet();
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Object wrapStatement(Object statement, Class<T> type) {
+        return wrap((T) statement, type);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.fidenz.config;
 
 import com.example.fidenz.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
@@ -11,7 +12,7 @@ public class TestConfig {
 
     @Bean
     @Primary
-    public JwtUtil jwtUtil() {
-        return new JwtUtil();
+    public JwtUtil jwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+        return new JwtUtil(secret, expiration);
     }
 }
@@ -65,8 +65,8 @@ public class AlgorithmControllerTest extends BaseIntegrationTest {
                 .orElseThrow(() -> new RuntimeException("Test operator user not found"));
 
         // Generate JWT tokens
-        managerToken = jwtUtil.generateToken(storeManager.getUsername());
-        employeeToken = jwtUtil.generateToken(storeEmployee.getUsername());
+        managerToken = jwtUtil.generateToken(storeManager.getUsername(), storeManager.getRole());
+        employeeToken = jwtUtil.generateToken(storeEmployee.getUsername(), storeEmployee.getRole());
 
         // Get test data from SQL scripts
         testStore = storeRepository.findById(1L)
@@ -123,6 +123,27 @@ public class AlgorithmControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(0))));
     }
 
+    @Test
+    @DisplayName("Should serve reorder recommendations from the latest snapshot until refreshed")
+    void testGenerateReorderRecommendations_ServesSnapshotUntilRefreshed() throws Exception {
+        mockMvc.perform(get("/api/algorithms/reorder-recommendations/{storeId}", testStore.getId())
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Version", "1"))
+                .andExpect(header().exists("X-Snapshot-Computed-At"));
+
+        mockMvc.perform(get("/api/algorithms/reorder-recommendations/{storeId}", testStore.getId())
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Version", "1"));
+
+        mockMvc.perform(get("/api/algorithms/reorder-recommendations/{storeId}", testStore.getId())
+                        .header("Authorization", "Bearer " + managerToken)
+                        .param("refresh", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Version", "2"));
+    }
+
     @Test
     @DisplayName("Should deny access to reorder recommendations for store employee")
     void testGenerateReorderRecommendations_AsStoreEmployee_ShouldReturn403() throws Exception {
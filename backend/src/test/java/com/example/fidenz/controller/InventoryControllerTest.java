@@ -1,6 +1,8 @@
 package com.example.fidenz.controller;
 
 import com.example.fidenz.base.BaseIntegrationTest;
+import com.example.fidenz.dto.InventoryAdjustmentBatchRequest;
+import com.example.fidenz.dto.InventoryAdjustmentRequest;
 import com.example.fidenz.entity.Inventory;
 import com.example.fidenz.entity.Product;
 import com.example.fidenz.entity.Role;
@@ -11,7 +13,9 @@ import com.example.fidenz.repository.ProductRepository;
 import com.example.fidenz.repository.StoreRepository;
 import com.example.fidenz.repository.UserRepository;
 import com.example.fidenz.security.JwtUtil;
+import com.example.fidenz.service.LowStockIndex;
 import com.example.fidenz.testdata.TestDataBuilder;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,8 +25,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,6 +53,12 @@ public class InventoryControllerTest extends BaseIntegrationTest {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
     private User testUser;
     private Store testStore1;
     private Store testStore2;
@@ -65,7 +77,7 @@ public class InventoryControllerTest extends BaseIntegrationTest {
                 .orElseThrow(() -> new RuntimeException("Test manager user not found"));
         
         // Generate JWT token
-        jwtToken = jwtUtil.generateToken(testUser.getUsername());
+        jwtToken = jwtUtil.generateToken(testUser.getUsername(), testUser.getRole());
         
         testStore1 = storeRepository.findById(1L)
                 .orElseThrow(() -> new RuntimeException("Test store 1 not found"));
@@ -97,13 +109,83 @@ public class InventoryControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(4)))
-                .andExpect(jsonPath("$[0].id", is(notNullValue())))
-                .andExpect(jsonPath("$[0].currentStock", is(notNullValue())))
-                .andExpect(jsonPath("$[0].productId", is(notNullValue())))
-                .andExpect(jsonPath("$[0].productName", is(notNullValue())))
-                .andExpect(jsonPath("$[0].storeId", is(notNullValue())))
-                .andExpect(jsonPath("$[0].storeName", is(notNullValue())));
+                .andExpect(jsonPath("$.items", hasSize(4)))
+                .andExpect(jsonPath("$.items[0].id", is(notNullValue())))
+                .andExpect(jsonPath("$.items[0].currentStock", is(notNullValue())))
+                .andExpect(jsonPath("$.items[0].productId", is(notNullValue())))
+                .andExpect(jsonPath("$.items[0].productName", is(notNullValue())))
+                .andExpect(jsonPath("$.items[0].storeId", is(notNullValue())))
+                .andExpect(jsonPath("$.items[0].storeName", is(notNullValue())))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements", is(nullValue())));
+    }
+
+    @Test
+    @DisplayName("Should page through all inventories with and without the total")
+    void testGetAllInventories_WithPageSize_ShouldReturnPages() throws Exception {
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[*].id", contains(1, 2, 3)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements", is(nullValue())));
+
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("page", "1")
+                        .param("size", "3")
+                        .param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(4)))
+                .andExpect(jsonPath("$.page", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements", is(4)));
+    }
+
+    @Test
+    @DisplayName("Should filter all inventories by store, category and low stock")
+    void testGetAllInventories_WithFilters_ShouldReturnMatchingRows() throws Exception {
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("storeId", testStore2.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(3, 4)));
+
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("category", "Category A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(1, 3)));
+
+        // Product 1 has a minimum of 10
+        mockMvc.perform(put("/api/inventory/{inventoryId}", 3)
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("newStock", "4"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("lowStock", "true")
+                        .param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(3)))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
+    @Test
+    @DisplayName("Should reject a page larger than the cap and an unknown store")
+    void testGetAllInventories_WithInvalidParameters_ShouldReturnError() throws Exception {
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("size", "501"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/inventory")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("storeId", "999"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -119,6 +201,112 @@ public class InventoryControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[1].currentStock", anyOf(is(50), is(30))));
     }
 
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 and no body")
+    void testGetInventoryByStore_WithMatchingEtag_ShouldReturn304() throws Exception {
+        String etag = mockMvc.perform(get("/api/inventory/{storeId}", testStore1.getId())
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/inventory/{storeId}", testStore1.getId())
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/inventory/{storeId}", testStore1.getId())
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Should apply an adjustment batch and report rejected lines without failing the batch")
+    void testAdjustInventory_WithMixedLines_ShouldApplyValidLinesOnly() throws Exception {
+        // Given - inventory 1 is product 1 (SKU001) in store 1 with 50 units, inventory 2 has 30 units
+        InventoryAdjustmentBatchRequest request = new InventoryAdjustmentBatchRequest(List.of(
+                new InventoryAdjustmentRequest(inventory1.getId(), null, null, 40, null),
+                new InventoryAdjustmentRequest(null, testStore1.getId(), "SKU001", null, 15),
+                new InventoryAdjustmentRequest(inventory2.getId(), null, null, null, -31),
+                new InventoryAdjustmentRequest(999L, null, null, 5, null),
+                new InventoryAdjustmentRequest(null, testStore1.getId(), "SKU003", 5, null),
+                new InventoryAdjustmentRequest(inventory2.getId(), null, null, 5, 1),
+                new InventoryAdjustmentRequest(inventory2.getId(), null, null, null, -30)));
+
+        // When & Then
+        mockMvc.perform(post("/api/inventory/adjustments")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(7)))
+                .andExpect(jsonPath("$.applied", is(3)))
+                .andExpect(jsonPath("$.rejected", is(4)))
+                .andExpect(jsonPath("$.results[0].currentStock", is(40)))
+                .andExpect(jsonPath("$.results[1].success", is(true)))
+                .andExpect(jsonPath("$.results[1].inventoryId", is(1)))
+                .andExpect(jsonPath("$.results[1].currentStock", is(55)))
+                .andExpect(jsonPath("$.results[2].error", is("Stock cannot go below 0. Current: 30")))
+                .andExpect(jsonPath("$.results[3].error", is("Inventory with id 999 not found")))
+                .andExpect(jsonPath("$.results[4].error", is("Inventory not found for sku SKU003 in store 1")))
+                .andExpect(jsonPath("$.results[5].error", is("Give either newStock or delta")))
+                .andExpect(jsonPath("$.results[6].currentStock", is(0)));
+
+        entityManager.clear();
+        assertEquals(55, inventoryRepository.findById(inventory1.getId()).orElseThrow().getCurrentStock());
+        assertEquals(0, inventoryRepository.findById(inventory2.getId()).orElseThrow().getCurrentStock());
+        assertEquals(20, inventoryRepository.findById(inventory3.getId()).orElseThrow().getCurrentStock());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an empty adjustment batch")
+    void testAdjustInventory_WithNoLines_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/inventory/adjustments")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new InventoryAdjustmentBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should list a store's low-stock items furthest below their minimum first")
+    void testGetLowStockItems_ShouldReturnItemsByShortfall() throws Exception {
+        // Product 1 has a minimum of 10 and product 2 a minimum of 5
+        inventory1.setCurrentStock(2);
+        inventory2.setCurrentStock(4);
+        inventoryRepository.saveAndFlush(inventory1);
+        inventoryRepository.saveAndFlush(inventory2);
+        lowStockIndex.rebuild();
+
+        mockMvc.perform(get("/api/inventory/{storeId}/low-stock", testStore1.getId())
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].productId", is(1)))
+                .andExpect(jsonPath("$[0].shortfall", is(8)))
+                .andExpect(jsonPath("$[1].productId", is(2)))
+                .andExpect(jsonPath("$[1].productSku", is("SKU002")));
+
+        mockMvc.perform(get("/api/inventory/{storeId}/low-stock", testStore1.getId())
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].productId", contains(1)));
+
+        mockMvc.perform(get("/api/inventory/{storeId}/low-stock", testStore2.getId())
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/api/inventory/{storeId}/low-stock", 999L)
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Should return 404 for non-existent store")
     void testGetInventoryByStore_WithNonExistentStore_ShouldReturn404() throws Exception {
@@ -1,22 +1,31 @@
 package com.example.fidenz.controller;
 
 import com.example.fidenz.base.BaseIntegrationTest;
+import com.example.fidenz.dto.SalesBatchRequest;
 import com.example.fidenz.dto.SalesTransactionRequest;
 import com.example.fidenz.entity.*;
 import com.example.fidenz.repository.*;
 import com.example.fidenz.security.JwtUtil;
 import com.example.fidenz.testdata.TestDataBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -44,6 +53,12 @@ public class SalesControllerTest extends BaseIntegrationTest {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
     private Store testStore1;
     private Store testStore2;
@@ -63,7 +78,7 @@ public class SalesControllerTest extends BaseIntegrationTest {
                 .orElseThrow(() -> new RuntimeException("Test manager user not found"));
         
         // Generate JWT token
-        jwtToken = jwtUtil.generateToken(testUser.getUsername());
+        jwtToken = jwtUtil.generateToken(testUser.getUsername(), testUser.getRole());
 
         // Get test data from SQL scripts
         testStore1 = storeRepository.findById(1L)
@@ -107,6 +122,60 @@ public class SalesControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.store.id", is(testStore1.getId().intValue())));
     }
 
+    @Test
+    @DisplayName("Should record a sales batch and report rejected lines without failing the batch")
+    void testRecordSalesBatch_WithMixedLines_ShouldAcceptValidLinesOnly() throws Exception {
+        // Given - 50 units of product 1 in store 1, product 3 not stocked in store 1
+        SalesBatchRequest request = new SalesBatchRequest(List.of(
+                TestDataBuilder.createSalesTransactionRequest(testProduct1.getId(), testStore1.getId(), 20, new BigDecimal("10.00")),
+                TestDataBuilder.createSalesTransactionRequest(testProduct1.getId(), testStore1.getId(), 40, new BigDecimal("10.00")),
+                TestDataBuilder.createSalesTransactionRequest(999L, testStore1.getId(), 1, new BigDecimal("10.00")),
+                TestDataBuilder.createSalesTransactionRequest(testProduct2.getId(), testStore1.getId(), 0, new BigDecimal("20.00")),
+                TestDataBuilder.createSalesTransactionRequest(testProduct1.getId(), testStore1.getId(), 30, new BigDecimal("10.00")),
+                TestDataBuilder.createSalesTransactionRequest(3L, testStore1.getId(), 1, new BigDecimal("30.00"))));
+        long salesBefore = salesTransactionRepository.count();
+
+        // When & Then
+        mockMvc.perform(post("/api/sales/transactions/batch")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(6)))
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected", is(4)))
+                .andExpect(jsonPath("$.results[0].success", is(true)))
+                .andExpect(jsonPath("$.results[0].transactionId", is(notNullValue())))
+                .andExpect(jsonPath("$.results[0].remainingStock", is(30)))
+                .andExpect(jsonPath("$.results[1].success", is(false)))
+                .andExpect(jsonPath("$.results[1].error", is("Insufficient stock. Available: 30")))
+                .andExpect(jsonPath("$.results[2].error", is("Product with id 999 not found")))
+                .andExpect(jsonPath("$.results[3].error", is("quantity must be greater than 0")))
+                .andExpect(jsonPath("$.results[4].success", is(true)))
+                .andExpect(jsonPath("$.results[4].remainingStock", is(0)))
+                .andExpect(jsonPath("$.results[5].error", is("Inventory not found for this product and store")));
+
+        entityManager.clear();
+        assertEquals(salesBefore + 2, salesTransactionRepository.count());
+        assertEquals(0, inventoryRepository.findById(inventory1.getId()).orElseThrow().getCurrentStock());
+        assertEquals(30, inventoryRepository.findById(inventory2.getId()).orElseThrow().getCurrentStock());
+        DailySalesRollup rollup = dailySalesRollupRepository
+                .findById(new DailySalesRollupId(testStore1.getId(), testProduct1.getId(), LocalDate.now()))
+                .orElseThrow();
+        assertEquals(50L, rollup.getQuantity());
+        assertEquals(2L, rollup.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an empty sales batch")
+    void testRecordSalesBatch_WithNoLines_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/sales/transactions/batch")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new SalesBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should return 400 for insufficient stock")
     void testRecordSale_WithInsufficientStock_ShouldReturn400() throws Exception {
@@ -205,7 +274,8 @@ public class SalesControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(0))); // Empty list since no sales exist yet
+                .andExpect(jsonPath("$.items", hasSize(0))) // Empty list since no sales exist yet
+                .andExpect(jsonPath("$.nextCursor", is(nullValue())));
     }
 
     @Test
@@ -216,7 +286,7 @@ public class SalesControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.items", hasSize(0)));
     }
 
     @Test
@@ -227,7 +297,7 @@ public class SalesControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(0))); // Both transactions are within 7 days
+                .andExpect(jsonPath("$.items", hasSize(0))); // Both transactions are within 7 days
     }
 
     @Test
@@ -238,7 +308,90 @@ public class SalesControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(0))); // No existing transactions
+                .andExpect(jsonPath("$.items", hasSize(0))); // No existing transactions
+    }
+
+    @Test
+    @DisplayName("Should page through sales newest first without gaps or repeats")
+    void testGetSalesByStore_WithCursor_ShouldWalkAllPages() throws Exception {
+        // Given - five sales, two of them at the same time so the id decides their order
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<Long> expectedIds = new ArrayList<>();
+        for (LocalDateTime date : List.of(base, base.plusHours(1), base.plusHours(1), base.plusHours(2), base.plusHours(3))) {
+            expectedIds.add(salesTransactionRepository.save(SalesTransaction.builder()
+                    .store(testStore1)
+                    .product(testProduct1)
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("9.99"))
+                    .totalAmount(new BigDecimal("9.99"))
+                    .transactionDate(date)
+                    .build()).getId());
+        }
+        Collections.reverse(expectedIds);
+
+        // When - pages of two
+        List<Long> seenIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/sales/store/{storeId}", testStore1.getId())
+                    .param("size", "2")
+                    .header("Authorization", "Bearer " + jwtToken);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seenIds.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(3, pages);
+        assertEquals(expectedIds, seenIds);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a cursor that was not issued by the server")
+    void testGetSalesByStore_WithInvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sales/store/{storeId}", testStore1.getId())
+                        .param("cursor", "not-a-cursor")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a page size above the limit")
+    void testGetSalesByStore_WithOversizedPage_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/sales/store/{storeId}", testStore1.getId())
+                        .param("size", "1001")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should stream a CSV export of a store's sales")
+    void testExportSalesByStore_AsCsv_ShouldStreamCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/sales/store/{storeId}/export", testStore2.getId())
+                        .param("format", "csv")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("text/csv")))
+                .andExpect(content().string(startsWith("id,transaction_date,store_id,product_id")));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when exporting an unknown store")
+    void testExportSalesByStore_WithUnknownStore_ShouldReturn404() throws Exception {
+        mockMvc.perform(get("/api/sales/store/{storeId}/export", 999L)
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -0,0 +1,140 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.entity.Role;
+import com.example.fidenz.entity.User;
+import com.example.fidenz.repository.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtRequestFilterTest {
+
+    private static final String SECRET = "mySecretKeyForTestingPurposesOnly123456789";
+
+    @Mock
+    private GetUserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000L);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenWithRole_AuthenticatesWithoutLoadingTheUser() throws Exception {
+        JwtRequestFilter filter = filter(Duration.ZERO);
+
+        Authentication authentication = authenticate(filter, jwtUtil.generateToken("pos_system", Role.API_CLIENT));
+
+        assertNotNull(authentication);
+        assertEquals("pos_system", authentication.getName());
+        assertEquals(List.of("ROLE_API_CLIENT"), authorities(authentication));
+        verifyNoInteractions(userDetailsService, userRepository);
+    }
+
+    @Test
+    void tokenWithoutRole_FallsBackToTheUserLookup() throws Exception {
+        JwtRequestFilter filter = filter(Duration.ZERO);
+        when(userDetailsService.loadUserByUsername("operator1")).thenReturn(
+                org.springframework.security.core.userdetails.User.withUsername("operator1")
+                        .password("x")
+                        .authorities(new SimpleGrantedAuthority("ROLE_STORE_OPERATOR"))
+                        .build());
+        String legacyToken = Jwts.builder()
+                .subject("operator1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        Authentication authentication = authenticate(filter, legacyToken);
+
+        assertEquals(List.of("ROLE_STORE_OPERATOR"), authorities(authentication));
+        verify(userDetailsService).loadUserByUsername("operator1");
+    }
+
+    @Test
+    void roleCache_AppliesTheCurrentRoleOncePerTtl() throws Exception {
+        JwtRequestFilter filter = filter(Duration.ofSeconds(30));
+        User user = new User();
+        user.setUsername("manager1");
+        user.setRole(Role.STORE_OPERATOR);
+        when(userRepository.findByUsername("manager1")).thenReturn(Optional.of(user));
+        String token = jwtUtil.generateToken("manager1", Role.STORE_MANAGER);
+
+        assertEquals(List.of("ROLE_STORE_OPERATOR"), authorities(authenticate(filter, token)));
+        assertEquals(List.of("ROLE_STORE_OPERATOR"), authorities(authenticate(filter, token)));
+        verify(userRepository, times(1)).findByUsername("manager1");
+    }
+
+    @Test
+    void roleCache_RejectsRemovedUsers() throws Exception {
+        JwtRequestFilter filter = filter(Duration.ofSeconds(30));
+        when(userRepository.findByUsername("operator2")).thenReturn(Optional.empty());
+
+        assertNull(authenticate(filter, jwtUtil.generateToken("operator2", Role.STORE_OPERATOR)));
+    }
+
+    @Test
+    void invalidSignature_LeavesTheRequestUnauthenticated() throws Exception {
+        JwtRequestFilter filter = filter(Duration.ZERO);
+        String forged = Jwts.builder()
+                .subject("pos_system")
+                .claim(JwtUtil.ROLE_CLAIM, Role.STORE_MANAGER.name())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("anotherSecretKeyThatIsLongEnoughForHmac256".getBytes()))
+                .compact();
+
+        assertNull(authenticate(filter, forged));
+    }
+
+    private JwtRequestFilter filter(Duration roleCacheTtl) {
+        UserRoleCache userRoleCache = new UserRoleCache(userRepository, new SimpleMeterRegistry(), roleCacheTtl, 100);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 100);
+        return new JwtRequestFilter(userDetailsService, jwtUtil, verifiedTokenCache, userRoleCache);
+    }
+
+    private static Authentication authenticate(JwtRequestFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/inventory/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static List<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.fidenz.security;
+
+import com.example.fidenz.entity.Role;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "mySecretKeyForTestingPurposesOnly123456789";
+
+    private final JwtUtil jwtUtil = spy(new JwtUtil(SECRET, 60_000L));
+
+    @Test
+    void verify_ChecksEachTokenOncePerTtl() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        String token = jwtUtil.generateToken("pos_system", Role.API_CLIENT);
+
+        VerifiedToken first = cache.verify(token);
+        VerifiedToken second = cache.verify(token);
+
+        assertSame(first, second);
+        assertEquals("pos_system", first.username());
+        assertEquals(Role.API_CLIENT, first.role());
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    @Test
+    void verify_DoesNotCacheRejectedTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        String forged = new JwtUtil("anotherSecretKeyThatIsLongEnoughForHmac256", 60_000L)
+                .generateToken("pos_system", Role.STORE_MANAGER);
+
+        assertThrows(JwtException.class, () -> cache.verify(forged));
+        assertThrows(JwtException.class, () -> cache.verify(forged));
+        verify(jwtUtil, times(2)).verify(forged);
+    }
+
+    @Test
+    void verify_RejectsCachedTokensOnceTheyExpire() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        doReturn(new VerifiedToken("operator1", Role.STORE_OPERATOR, Instant.now().minusSeconds(1)))
+                .when(jwtUtil).verify("expiring");
+
+        assertThrows(ExpiredJwtException.class, () -> cache.verify("expiring"));
+        assertThrows(ExpiredJwtException.class, () -> cache.verify("expiring"));
+        verify(jwtUtil, times(2)).verify("expiring");
+    }
+
+    @Test
+    void verify_WithZeroTtl_VerifiesEveryCall() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), Duration.ZERO, 100);
+        String token = jwtUtil.generateToken("operator1", Role.STORE_OPERATOR);
+
+        cache.verify(token);
+        cache.verify(token);
+
+        verify(jwtUtil, times(2)).verify(token);
+    }
+}
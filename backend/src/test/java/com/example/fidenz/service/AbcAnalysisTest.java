@@ -1,20 +1,24 @@
 package com.example.fidenz.service;
 
 import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.dto.ProductRevenue;
 import com.example.fidenz.entity.Product;
-import com.example.fidenz.entity.SalesTransaction;
 import com.example.fidenz.entity.Store;
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.repository.ProductRepository;
 import com.example.fidenz.repository.SalesTransactionRepository;
 import com.example.fidenz.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +36,13 @@ class AbcAnalysisTest {
     @Mock
     private StoreRepository storeRepository;
 
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private AbcAnalysisCache abcAnalysisCache =
+            new AbcAnalysisCache(new SimpleMeterRegistry(), Duration.ofMinutes(10), 16);
+
     @InjectMocks
     private AbcAnalysisService abcAnalysisService;
 
@@ -56,30 +67,31 @@ class AbcAnalysisTest {
         // Given
         Long storeId = 1L;
         int days = 30;
-        List<SalesTransaction> transactions = createTestTransactions(5);
 
         when(storeRepository.findById(storeId)).thenReturn(Optional.of(testStore));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any()))
-                .thenReturn(transactions);
+        when(salesTransactionRepository.sumRevenueByProduct(eq(storeId), any(), any()))
+                .thenReturn(List.of(new ProductRevenue(1L, new BigDecimal("1000.00"))));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
 
         // When
         List<AbcAnalysisResult> results = abcAnalysisService.performAbcAnalysis(storeId, days);
 
         // Then
-        assertNotNull(results);
+        assertEquals(1, results.size());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(results.get(0).totalRevenue()));
         verify(storeRepository).findById(storeId);
-        verify(salesTransactionRepository).findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any());
+        verify(salesTransactionRepository).sumRevenueByProduct(eq(storeId), any(), any());
+        verify(salesTransactionRepository, never()).findByStoreIdAndTransactionDateBetween(any(), any(), any());
     }
 
     @Test
     void testPerformAbcAnalysis_EmptyData() {
         // Given
         Long storeId = 1L;
-        List<SalesTransaction> emptyTransactions = new ArrayList<>();
 
         when(storeRepository.findById(storeId)).thenReturn(Optional.of(testStore));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any()))
-                .thenReturn(emptyTransactions);
+        when(salesTransactionRepository.sumRevenueByProduct(eq(storeId), any(), any()))
+                .thenReturn(new ArrayList<>());
 
         // When
         List<AbcAnalysisResult> results = abcAnalysisService.performAbcAnalysis(storeId, 30);
@@ -88,64 +100,103 @@ class AbcAnalysisTest {
         assertNotNull(results);
         assertTrue(results.isEmpty());
         verify(storeRepository).findById(storeId);
-        verify(salesTransactionRepository).findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any());
+        verify(salesTransactionRepository).sumRevenueByProduct(eq(storeId), any(), any());
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void testAbcAnalysisResultStructure() {
         // Given
         Long storeId = 1L;
-        List<SalesTransaction> transactions = createTestTransactions(3);
+        Product other = new Product();
+        other.setId(2L);
+        other.setName("Other Product");
 
         when(storeRepository.findById(storeId)).thenReturn(Optional.of(testStore));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any()))
-                .thenReturn(transactions);
+        when(salesTransactionRepository.sumRevenueByProduct(eq(storeId), any(), any()))
+                .thenReturn(List.of(new ProductRevenue(1L, new BigDecimal("900.00")),
+                        new ProductRevenue(2L, new BigDecimal("100.00"))));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(testProduct, other));
 
         // When
         List<AbcAnalysisResult> results = abcAnalysisService.performAbcAnalysis(storeId, 30);
 
         // Then
-        assertNotNull(results);
-        if (!results.isEmpty()) {
-            AbcAnalysisResult result = results.get(0);
-            assertNotNull(result.product());
-            assertNotNull(result.totalRevenue());
-            assertNotNull(result.category());
-            assertTrue(result.totalRevenue().compareTo(BigDecimal.ZERO) >= 0);
-            assertTrue(result.percentageOfTotal().compareTo(BigDecimal.ZERO) >= 0);
-            assertTrue(result.cumulativePercentage().compareTo(BigDecimal.ZERO) >= 0);
-        }
+        assertEquals(2, results.size());
+        AbcAnalysisResult result = results.get(0);
+        assertEquals(testProduct, result.product());
+        assertEquals(0, new BigDecimal("90.00").compareTo(result.percentageOfTotal()));
+        assertEquals("B", result.category());
+        assertEquals("C", results.get(1).category());
+        assertEquals(0, new BigDecimal("100.00").compareTo(results.get(1).cumulativePercentage()));
     }
 
     @Test
-    void aggregateRevenueByProduct_shouldSumByProduct() {
+    void allViews_shareOneCachedComputation() {
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(salesTransactionRepository.sumRevenueByProduct(eq(1L), any(), any()))
+                .thenReturn(List.of(new ProductRevenue(1L, new BigDecimal("10.00"))));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(testProduct));
+
+        List<AbcAnalysisResult> results = abcAnalysisService.performAbcAnalysis(1L, 30);
+        var byCategory = abcAnalysisService.getAbcAnalysisByCategory(1L, 30);
+        var summary = abcAnalysisService.getAbcAnalysisSummary(1L, 30);
+
+        assertEquals(results, byCategory.get("C"));
+        assertEquals(1L, summary.get("C"));
+        verify(salesTransactionRepository, times(1)).sumRevenueByProduct(eq(1L), any(), any());
+
+        // another window is a separate entry
+        abcAnalysisService.performAbcAnalysis(1L, 90);
+        verify(salesTransactionRepository, times(2)).sumRevenueByProduct(eq(1L), any(), any());
+    }
+
+    @Test
+    void newSale_invalidatesCachedResultsOfItsStore() {
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(salesTransactionRepository.sumRevenueByProduct(eq(1L), any(), any())).thenReturn(List.of());
+
+        abcAnalysisService.performAbcAnalysis(1L, 30);
+        abcAnalysisCache.onStockChanged(new StockChangedEvent(2L, 1L, 5, StockChangedEvent.ChangeType.SALE));
+        abcAnalysisCache.onStockChanged(new StockChangedEvent(1L, 1L, 5, StockChangedEvent.ChangeType.ADJUSTMENT));
+        abcAnalysisService.performAbcAnalysis(1L, 30);
+        verify(salesTransactionRepository, times(1)).sumRevenueByProduct(eq(1L), any(), any());
+
+        abcAnalysisCache.onStockChanged(new StockChangedEvent(1L, 1L, 5, StockChangedEvent.ChangeType.SALE));
+        abcAnalysisService.performAbcAnalysis(1L, 30);
+        verify(salesTransactionRepository, times(2)).sumRevenueByProduct(eq(1L), any(), any());
+    }
+
+    @Test
+    void aggregateRevenueByProduct_shouldConvertToCentsPerProduct() {
         // Given
-        List<SalesTransaction> transactions = createTestTransactions(3);
-        transactions.get(0).setTotalAmount(new BigDecimal("10.00"));
-        transactions.get(1).setTotalAmount(new BigDecimal("15.50"));
-        transactions.get(2).setTotalAmount(new BigDecimal("4.50"));
+        Product other = new Product();
+        other.setId(2L);
+        List<ProductRevenue> revenues = List.of(new ProductRevenue(1L, new BigDecimal("30.00")),
+                new ProductRevenue(2L, new BigDecimal("4.50")),
+                new ProductRevenue(3L, new BigDecimal("1.00")));
 
         // When
-        AbcAnalysisService svc = abcAnalysisService; // use injected instance
-        var map = svc.aggregateRevenueByProduct(transactions);
+        var map = abcAnalysisService.aggregateRevenueByProduct(revenues, List.of(testProduct, other));
 
         // Then
-        assertNotNull(map);
-        assertEquals(new BigDecimal("30.00"), map.get(testProduct));
+        assertEquals(2, map.size());
+        assertEquals(3000L, map.get(testProduct));
+        assertEquals(450L, map.get(other));
     }
 
     @Test
     void calculateGrandTotal_shouldSumAllValues() {
         // Given
         AbcAnalysisService svc = abcAnalysisService;
-        var map = new java.util.HashMap<Product, BigDecimal>();
-        map.put(testProduct, new BigDecimal("12.34"));
+        var map = new java.util.HashMap<Product, Long>();
+        map.put(testProduct, 1234L);
 
         // When
-        BigDecimal total = svc.calculateGrandTotal(map);
+        long total = svc.calculateGrandTotal(map);
 
         // Then
-        assertEquals(new BigDecimal("12.34"), total);
+        assertEquals(1234L, total);
     }
 
     @Test
@@ -153,9 +204,9 @@ class AbcAnalysisTest {
         // Given
         AbcAnalysisService svc = abcAnalysisService;
         var p2 = new Product(); p2.setId(2L); p2.setName("P2");
-        var map = new java.util.HashMap<Product, BigDecimal>();
-        map.put(testProduct, new BigDecimal("5"));
-        map.put(p2, new BigDecimal("10"));
+        var map = new java.util.HashMap<Product, Long>();
+        map.put(testProduct, 500L);
+        map.put(p2, 1000L);
 
         // When
         var sorted = svc.sortByRevenueDescending(map);
@@ -168,15 +219,15 @@ class AbcAnalysisTest {
     @Test
     void percentage_handlesZeroDenominator() {
         AbcAnalysisService svc = abcAnalysisService;
-        assertEquals(BigDecimal.ZERO, svc.percentage(new BigDecimal("10"), BigDecimal.ZERO));
+        assertEquals(0L, svc.percentage(1000L, 0L));
     }
 
     @Test
     void determineCategory_thresholds() {
         AbcAnalysisService svc = abcAnalysisService;
         assertEquals("A", svc.determineCategory(AbcAnalysisService.CATEGORY_A_THRESHOLD));
-        assertEquals("B", svc.determineCategory(new BigDecimal("90")));
-        assertEquals("C", svc.determineCategory(AbcAnalysisService.CATEGORY_B_THRESHOLD.add(new BigDecimal("1"))));
+        assertEquals("B", svc.determineCategory(9000L));
+        assertEquals("C", svc.determineCategory(AbcAnalysisService.CATEGORY_B_THRESHOLD + 1));
     }
 
     @Test
@@ -226,21 +277,4 @@ class AbcAnalysisTest {
         assertEquals(1L, summary.get("B"));
         assertEquals(0L, summary.get("C"));
     }
-
-    // Helper method to create test data
-    private List<SalesTransaction> createTestTransactions(int count) {
-        List<SalesTransaction> transactions = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            SalesTransaction transaction = new SalesTransaction();
-            transaction.setId((long) i);
-            transaction.setProduct(testProduct);
-            transaction.setStore(testStore);
-            transaction.setQuantity(2);
-            transaction.setUnitPrice(testProduct.getUnitPrice());
-            transaction.setTotalAmount(testProduct.getUnitPrice().multiply(new BigDecimal("2")));
-            transaction.setTransactionDate(LocalDateTime.now().minusDays(i));
-            transactions.add(transaction);
-        }
-        return transactions;
-    }
 }
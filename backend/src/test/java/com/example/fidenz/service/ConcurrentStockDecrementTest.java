@@ -0,0 +1,226 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.dto.SalesTransactionRequest;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test for concurrent sales of one SKU: several threads sell from the same inventory row
+ * until it runs out. Compares the conditional decrement used by {@link SalesService} against a
+ * lock-then-update path. Runs without a test transaction so every sale commits on its own.
+ */
+@SpringBootTest(properties = "reorder.dirty.flush-interval=PT1H")
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@DisplayName("Concurrent stock decrement")
+class ConcurrentStockDecrementTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentStockDecrementTest.class);
+
+    private static final int INITIAL_STOCK = 200;
+    private static final int THREADS = 8;
+    // More attempts than stock, so the last sales must be refused
+    private static final int ATTEMPTS_PER_THREAD = 40;
+
+    private static final String LOCK_STOCK_SQL =
+            "SELECT current_stock FROM inventory WHERE store_id = ? AND product_id = ? FOR UPDATE";
+    private static final String WRITE_STOCK_SQL =
+            "UPDATE inventory SET current_stock = ?, updated_at = ? WHERE store_id = ? AND product_id = ?";
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private Store store;
+    private Product product;
+
+    @BeforeEach
+    void setUpInventory() {
+        store = new Store();
+        store.setName("Concurrency Store");
+        store.setLocation("Concurrency Street");
+        store.setContactNumber("5550002");
+        store = storeRepository.save(store);
+
+        product = new Product();
+        product.setName("Contended SKU");
+        product.setUnitPrice(new BigDecimal("2.50"));
+        product = productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setStore(store);
+        inventory.setProduct(product);
+        inventory.setCurrentStock(INITIAL_STOCK);
+        inventoryRepository.save(inventory);
+    }
+
+    @AfterEach
+    void removeInventory() {
+        jdbcTemplate.update("DELETE FROM reorder_recommendations WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM daily_sales_rollups WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM sales_transactions WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM inventory WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", product.getId());
+        jdbcTemplate.update("DELETE FROM stores WHERE id = ?", store.getId());
+    }
+
+    @Test
+    @DisplayName("Concurrent sales should sell exactly the stock on hand")
+    void concurrentSalesShouldNotOversell() throws Exception {
+        SalesTransactionRequest request = new SalesTransactionRequest(
+                product.getId(), store.getId(), 1, new BigDecimal("2.50"));
+
+        AtomicInteger refused = new AtomicInteger();
+        int sold = runConcurrently(() -> {
+            try {
+                salesService.recordSale(request);
+                return true;
+            } catch (IllegalArgumentException e) {
+                refused.incrementAndGet();
+                return false;
+            }
+        });
+
+        assertEquals(INITIAL_STOCK, sold);
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK, refused.get());
+        assertEquals(0, currentStock());
+        assertEquals(INITIAL_STOCK, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales_transactions WHERE store_id = ?", Integer.class, store.getId()));
+    }
+
+    @Test
+    @DisplayName("Conditional decrement should take one round trip per sale against two for lock-then-update")
+    void conditionalDecrementShouldBeatLockThenUpdate() throws Exception {
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+
+        statementCounter.reset();
+        long start = System.nanoTime();
+        int conditionalSold = runConcurrently(() -> transactionTemplate.execute(status ->
+                inventoryRepository.decrementStock(store.getId(), product.getId(), 1, LocalDateTime.now()) == 1));
+        long conditionalNanos = System.nanoTime() - start;
+        long conditionalStatements = statementCounter.count();
+
+        assertEquals(INITIAL_STOCK, conditionalSold);
+        assertEquals(0, currentStock());
+        assertEquals(attempts, conditionalStatements);
+
+        jdbcTemplate.update("UPDATE inventory SET current_stock = ? WHERE store_id = ? AND product_id = ?",
+                INITIAL_STOCK, store.getId(), product.getId());
+
+        statementCounter.reset();
+        start = System.nanoTime();
+        int lockingSold = runConcurrently(() -> transactionTemplate.execute(status -> lockThenDecrement(1)));
+        long lockingNanos = System.nanoTime() - start;
+        long lockingStatements = statementCounter.count();
+
+        assertEquals(INITIAL_STOCK, lockingSold);
+        assertEquals(0, currentStock());
+        assertEquals(attempts + INITIAL_STOCK, lockingStatements);
+
+        // Timings depend on the machine, so they are reported rather than asserted
+        log.info("{} sale attempts on {} threads: conditional update {} statements, {} attempts/s; " +
+                        "lock then update {} statements, {} attempts/s",
+                attempts, THREADS,
+                conditionalStatements, attemptsPerSecond(attempts, conditionalNanos),
+                lockingStatements, attemptsPerSecond(attempts, lockingNanos));
+    }
+
+    // The check-then-write shape recordSale used to have, made safe with a row lock
+    private boolean lockThenDecrement(int quantity) {
+        Integer stock = jdbcTemplate.queryForObject(LOCK_STOCK_SQL, Integer.class, store.getId(), product.getId());
+        if (stock == null || stock < quantity) {
+            return false;
+        }
+        jdbcTemplate.update(WRITE_STOCK_SQL, stock - quantity, LocalDateTime.now(), store.getId(), product.getId());
+        return true;
+    }
+
+    // Runs ATTEMPTS_PER_THREAD sales on each of THREADS threads, all released at once; returns the number sold
+    private int runConcurrently(SaleAttempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    startGate.await();
+                    int sold = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (attempt.sell()) {
+                            sold++;
+                        }
+                    }
+                    return sold;
+                }));
+            }
+            startGate.countDown();
+
+            int sold = 0;
+            for (Future<Integer> result : results) {
+                sold += result.get();
+            }
+            return sold;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int currentStock() {
+        return inventoryRepository.findCurrentStock(store.getId(), product.getId()).orElseThrow();
+    }
+
+    private static long attemptsPerSecond(int attempts, long nanos) {
+        return attempts * 1_000_000_000L / Math.max(nanos, 1);
+    }
+
+    @FunctionalInterface
+    private interface SaleAttempt {
+        boolean sell();
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.AbcAnalysisResult;
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.util.FixedPointMath;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the scaled-long computations in ReorderService and AbcAnalysisService with the
+ * BigDecimal implementation they replaced, on randomized inputs.
+ */
+class FixedPointEquivalenceTest {
+
+    private static final long SEED = 20240611L;
+
+    private final ReorderService reorderService = new ReorderService(null, null, null, null, null, null);
+    private final AbcAnalysisService abcAnalysisService = new AbcAnalysisService(null, null, null, null, null);
+
+    @Test
+    void divideHalfUp_matchesBigDecimalHalfUp() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 100_000; i++) {
+            long dividend = random.nextLong() >> random.nextInt(64);
+            long divisor = (random.nextLong() >> random.nextInt(64)) | 1;
+            long expected = BigDecimal.valueOf(dividend)
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, FixedPointMath.divideHalfUp(dividend, divisor), dividend + " / " + divisor);
+        }
+    }
+
+    @Test
+    void reorderCalculation_matchesBigDecimalPath() {
+        Random random = new Random(SEED);
+        Store store = new Store();
+        store.setId(1L);
+        int compared = 0;
+
+        for (int i = 0; i < 5_000; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("P" + i);
+            product.setMinStorageQty(random.nextInt(20));
+            product.setMaxStorageQty(100_000);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setStore(store);
+            inventory.setCurrentStock(random.nextInt(60));
+
+            long transactionCount = 1 + random.nextInt(400);
+            long weekdayCount = random.nextInt((int) transactionCount + 1);
+            long totalQuantity = transactionCount + random.nextInt(5_000);
+            ProductSalesSummary sales = new ProductSalesSummary(product.getId(), totalQuantity, transactionCount, weekdayCount);
+
+            ReferenceReorder expected = referenceReorder(inventory, sales);
+            ReorderRecommendation actual = reorderService.calculateReorderRecommendation(inventory, sales);
+
+            if (expected.recommendedQuantity() <= 0) {
+                continue;
+            }
+            compared++;
+            assertNotNull(actual);
+            assertEquals(0, expected.averageDailySales().compareTo(actual.getAverageDailySales()));
+            assertEquals(0, expected.seasonalityFactor().compareTo(actual.getSeasonalityFactor()));
+            assertEquals(0, expected.adjustedSales().compareTo(actual.getAdjustedSales()));
+            assertEquals(expected.safetyStock(), actual.getSafetyStock());
+            assertEquals(expected.reorderPoint(), actual.getReorderPoint());
+            assertEquals(expected.recommendedQuantity(), actual.getRecommendedQuantity());
+        }
+        assertTrue(compared > 500, "too few recommendations compared: " + compared);
+    }
+
+    @Test
+    void abcAnalysis_matchesBigDecimalPath() {
+        Random random = new Random(SEED);
+
+        for (int run = 0; run < 500; run++) {
+            List<SalesTransaction> sales = randomSales(random, 1 + random.nextInt(30), 1 + random.nextInt(400));
+
+            Map<Product, BigDecimal> referenceRevenue = referenceAggregate(sales);
+            if (new HashSet<>(referenceRevenue.values()).size() != referenceRevenue.size()) {
+                // equal revenues have no defined order in either implementation
+                continue;
+            }
+            List<AbcAnalysisResult> expected = referenceResults(referenceRevenue);
+
+            // the SQL projection hands back the exact decimal sums the reference computes
+            List<ProductRevenue> sums = referenceRevenue.entrySet().stream()
+                    .map(entry -> new ProductRevenue(entry.getKey().getId(), entry.getValue()))
+                    .toList();
+            Map<Product, Long> revenue = abcAnalysisService.aggregateRevenueByProduct(sums, referenceRevenue.keySet());
+            List<AbcAnalysisResult> actual = abcAnalysisService.buildResults(
+                    abcAnalysisService.sortByRevenueDescending(revenue),
+                    abcAnalysisService.calculateGrandTotal(revenue));
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    private List<SalesTransaction> randomSales(Random random, int productCount, int transactionCount) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("P" + i);
+            products.add(product);
+        }
+        List<SalesTransaction> sales = new ArrayList<>();
+        for (int i = 0; i < transactionCount; i++) {
+            SalesTransaction transaction = new SalesTransaction();
+            transaction.setProduct(products.get(random.nextInt(productCount)));
+            transaction.setTotalAmount(BigDecimal.valueOf(1 + random.nextInt(100_000), 2));
+            sales.add(transaction);
+        }
+        return sales;
+    }
+
+    // ---- Reference: the BigDecimal implementation before the fixed-point rewrite ----
+
+    private record ReferenceReorder(BigDecimal averageDailySales, BigDecimal seasonalityFactor,
+                                    BigDecimal adjustedSales, int safetyStock, int reorderPoint,
+                                    int recommendedQuantity) {
+    }
+
+    private static ReferenceReorder referenceReorder(Inventory inventory, ProductSalesSummary sales) {
+        BigDecimal totalQuantity = BigDecimal.valueOf(sales.totalQuantity());
+        BigDecimal averageDailySales = totalQuantity.divide(BigDecimal.valueOf(30), 2, RoundingMode.HALF_UP);
+
+        BigDecimal weekdayFactor = BigDecimal.valueOf(sales.weekdayCount()).multiply(BigDecimal.valueOf(0.8));
+        BigDecimal weekendFactor = BigDecimal.valueOf(sales.weekendCount()).multiply(BigDecimal.valueOf(1.4));
+        BigDecimal seasonalityFactor = weekdayFactor.add(weekendFactor).divide(BigDecimal.valueOf(7), 2, RoundingMode.HALF_UP);
+        if (seasonalityFactor.compareTo(BigDecimal.valueOf(0.1)) < 0) {
+            seasonalityFactor = BigDecimal.valueOf(0.1);
+        }
+
+        BigDecimal adjustedSales = averageDailySales.multiply(seasonalityFactor);
+        int safetyStock = adjustedSales.multiply(BigDecimal.valueOf(2)).intValue();
+        int reorderPoint = adjustedSales.multiply(BigDecimal.valueOf(7)).intValue() + safetyStock;
+
+        int currentStock = inventory.getCurrentStock();
+        int reorderQty = reorderPoint - currentStock;
+        if (reorderQty > 0) {
+            reorderQty = ((reorderQty + 9) / 10) * 10;
+            reorderQty = Math.min(reorderQty, inventory.getProduct().getMaxStorageQty() - currentStock);
+        }
+        return new ReferenceReorder(averageDailySales, seasonalityFactor, adjustedSales, safetyStock, reorderPoint, reorderQty);
+    }
+
+    private static Map<Product, BigDecimal> referenceAggregate(List<SalesTransaction> sales) {
+        Map<Product, BigDecimal> revenueByProduct = new HashMap<>();
+        for (SalesTransaction transaction : sales) {
+            BigDecimal amount = transaction.getTotalAmount() != null ? transaction.getTotalAmount() : BigDecimal.ZERO;
+            revenueByProduct.merge(transaction.getProduct(), amount, BigDecimal::add);
+        }
+        return revenueByProduct;
+    }
+
+    private static List<AbcAnalysisResult> referenceResults(Map<Product, BigDecimal> productRevenue) {
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        for (BigDecimal value : productRevenue.values()) {
+            grandTotal = grandTotal.add(value);
+        }
+
+        List<Map.Entry<Product, BigDecimal>> entries = new ArrayList<>(productRevenue.entrySet());
+        entries.sort(Map.Entry.<Product, BigDecimal>comparingByValue(Comparator.naturalOrder()).reversed());
+
+        List<AbcAnalysisResult> results = new ArrayList<>();
+        BigDecimal cumulativeRevenue = BigDecimal.ZERO;
+        for (Map.Entry<Product, BigDecimal> entry : entries) {
+            BigDecimal revenue = entry.getValue();
+            BigDecimal percentageOfTotal = referencePercentage(revenue, grandTotal);
+            cumulativeRevenue = cumulativeRevenue.add(revenue);
+            BigDecimal cumulativePercentage = referencePercentage(cumulativeRevenue, grandTotal);
+
+            String category;
+            if (cumulativePercentage.compareTo(BigDecimal.valueOf(80)) <= 0) {
+                category = "A";
+            } else if (cumulativePercentage.compareTo(BigDecimal.valueOf(95)) <= 0) {
+                category = "B";
+            } else {
+                category = "C";
+            }
+
+            results.add(AbcAnalysisResult.builder()
+                    .product(entry.getKey())
+                    .totalRevenue(revenue)
+                    .percentageOfTotal(percentageOfTotal)
+                    .cumulativePercentage(cumulativePercentage)
+                    .category(category)
+                    .build());
+        }
+        return results;
+    }
+
+    private static BigDecimal referencePercentage(BigDecimal numerator, BigDecimal denominator) {
+        return numerator.divide(denominator, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.IdAllocation;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.IdAllocationRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBC allocations taken while Hibernate is part way through an id block must not overlap it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Id allocation across JPA and JDBC")
+class IdAllocationInterleavingTest {
+
+    private static final int JDBC_IDS = 10;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdAllocationRepository idAllocationRepository;
+
+    @Test
+    @DisplayName("JDBC ids reserved after a JPA save should not be handed out by Hibernate's open block")
+    void jdbcAllocationAfterJpaSave_DoesNotOverlapHibernateBlock() {
+        Store store = storeRepository.findById(1L).orElseThrow();
+        Product product = productRepository.findById(1L).orElseThrow();
+
+        Set<Long> ids = new HashSet<>();
+        ids.add(salesTransactionRepository.save(sale(store, product)).getId());
+
+        long firstJdbcId = idAllocationRepository.allocate("sales_transactions", JDBC_IDS);
+        for (long id = firstJdbcId; id < firstJdbcId + JDBC_IDS; id++) {
+            assertTrue(ids.add(id), "JDBC id " + id + " was already handed out by Hibernate");
+        }
+
+        // the rest of Hibernate's open block and the first id of the next one
+        for (int i = 0; i < IdAllocation.ALLOCATION_SIZE; i++) {
+            Long id = salesTransactionRepository.save(sale(store, product)).getId();
+            assertTrue(ids.add(id), "Hibernate handed out id " + id + " twice");
+        }
+    }
+
+    private static SalesTransaction sale(Store store, Product product) {
+        return SalesTransaction.builder()
+                .store(store)
+                .product(product)
+                .quantity(1)
+                .unitPrice(BigDecimal.ONE)
+                .totalAmount(BigDecimal.ONE)
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.dto.InventoryAdjustmentRequest;
+import com.example.fidenz.dto.InventoryAdjustmentResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A full recount-sized adjustment batch: 10,000 lines against the inventory rows of data.sql, half by
+ * inventory id and half by store and sku. The round trips must not grow with the number of lines.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@Transactional
+@DisplayName("Inventory adjustment throughput")
+class InventoryAdjustmentThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAdjustmentThroughputTest.class);
+
+    private static final int LINES = 10_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    @DisplayName("10,000 adjustment lines should be applied with one lookup per kind and one update batch")
+    void adjustInventory_TenThousandLines_UsesConstantRoundTrips() {
+        // inventory 1 = store 1 / SKU001 (50 units), inventory 2 = store 1 / SKU002 (30 units)
+        List<InventoryAdjustmentRequest> requests = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES / 2; i++) {
+            requests.add(new InventoryAdjustmentRequest(1L, null, null, null, 1));
+            requests.add(new InventoryAdjustmentRequest(null, 1L, "SKU002", null, 2));
+        }
+
+        statementCounter.reset();
+        long start = System.nanoTime();
+        InventoryAdjustmentResponse response = inventoryService.adjustInventory(requests);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long statements = statementCounter.count();
+
+        log.info("{} adjustment lines applied in {} ms with {} statements", LINES, elapsedMillis, statements);
+
+        assertEquals(LINES, response.applied());
+        assertEquals(50 + LINES / 2, currentStock(1L));
+        assertEquals(30 + LINES, currentStock(2L));
+        // lock by id, lock by sku, one update batch
+        assertTrue(statements <= 3, "Expected at most 3 statements but was " + statements);
+    }
+
+    private int currentStock(Long inventoryId) {
+        return jdbcTemplate.queryForObject("SELECT current_stock FROM inventory WHERE id = ?", Integer.class, inventoryId);
+    }
+}
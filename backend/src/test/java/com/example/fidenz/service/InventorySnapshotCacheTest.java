@@ -0,0 +1,82 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.event.StockChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventorySnapshotCacheTest {
+
+    private final InventorySnapshotCache cache =
+            new InventorySnapshotCache(new SimpleMeterRegistry(), Duration.ofMinutes(10), 8);
+
+    @Test
+    void get_ServesTheSnapshotUntilTheStoreChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        InventorySnapshotCache.Snapshot first = cache.get(1L, () -> body("v" + loads.incrementAndGet()));
+        InventorySnapshotCache.Snapshot second = cache.get(1L, () -> body("v" + loads.incrementAndGet()));
+        assertSame(first, second);
+        assertEquals(cache.etag(1L), first.etag());
+
+        cache.onStockChanged(new StockChangedEvent(1L, 10L, 4, StockChangedEvent.ChangeType.SALE));
+        InventorySnapshotCache.Snapshot third = cache.get(1L, () -> body("v" + loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+        assertNotEquals(first.etag(), third.etag());
+        assertEquals("v2", new String(third.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void etag_ChangesOnlyForTheChangedStore() {
+        String store1 = cache.etag(1L);
+        String store2 = cache.etag(2L);
+
+        cache.storesChanged(List.of(2L));
+
+        assertEquals(store1, cache.etag(1L));
+        assertNotEquals(store2, cache.etag(2L));
+        assertTrue(store1.startsWith("\"") && store1.endsWith("\""));
+    }
+
+    @Test
+    void get_DoesNotKeepASnapshotThatRacedAStockChange() {
+        // the stock changes while the listing is being read, so the result belongs to the older version
+        InventorySnapshotCache.Snapshot raced = cache.get(1L, () -> {
+            cache.storeChanged(1L);
+            return body("old");
+        });
+        InventorySnapshotCache.Snapshot next = cache.get(1L, () -> body("new"));
+
+        assertNotEquals(raced.etag(), cache.etag(1L));
+        assertEquals(cache.etag(1L), next.etag());
+        assertEquals("new", new String(next.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_KeepsAStoreSnapshotWhenAnotherStoreChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // store 2 sells while store 1's listing is being read, and again after it is cached
+        InventorySnapshotCache.Snapshot first = cache.get(1L, () -> {
+            cache.onStockChanged(new StockChangedEvent(2L, 10L, 1, StockChangedEvent.ChangeType.SALE));
+            return body("v" + loads.incrementAndGet());
+        });
+        cache.onStockChanged(new StockChangedEvent(2L, 10L, 1, StockChangedEvent.ChangeType.SALE));
+        InventorySnapshotCache.Snapshot second = cache.get(1L, () -> body("v" + loads.incrementAndGet()));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(cache.etag(1L), second.etag());
+    }
+
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
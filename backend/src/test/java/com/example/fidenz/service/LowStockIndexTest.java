@@ -0,0 +1,134 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.LowStockItem;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockIndexTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LowStockIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new LowStockIndex(inventoryRepository, referenceDataCache, stockLedger, meterRegistry);
+        when(inventoryRepository.findLowStockItems()).thenReturn(List.of(
+                new LowStockItem(1L, 10L, "Milk", "SKU010", 8, 10),
+                new LowStockItem(1L, 11L, "Bread", "SKU011", 0, 20),
+                new LowStockItem(1L, 12L, "Eggs", "SKU012", 3, 8),
+                new LowStockItem(2L, 10L, "Milk", "SKU010", 9, 10)));
+        index.rebuild();
+    }
+
+    @Test
+    void rebuild_KeepsEachStoreSortedByShortfall() {
+        assertEquals(List.of(11L, 12L, 10L), productIds(index.top(1L, 10)));
+        assertEquals(List.of(11L, 12L), productIds(index.top(1L, 2)));
+        assertEquals(List.of(10L), productIds(index.top(2L, 10)));
+        assertTrue(index.top(3L, 10).isEmpty());
+        assertEquals(4.0, meterRegistry.get("inventory.low-stock.items").gauge().value());
+    }
+
+    @Test
+    void onStockChanged_MovesAddsAndDropsItems() {
+        when(referenceDataCache.findProduct(10L)).thenReturn(Optional.of(product(10L, "Milk", 10)));
+        when(referenceDataCache.findProduct(13L)).thenReturn(Optional.of(product(13L, "Rice", 5)));
+        when(referenceDataCache.findProduct(11L)).thenReturn(Optional.of(product(11L, "Bread", 20)));
+
+        // milk sold down to 0, rice newly below its minimum, bread restocked
+        index.onStockChanged(new StockChangedEvent(1L, 10L, 0, StockChangedEvent.ChangeType.SALE));
+        index.onStockChanged(new StockChangedEvent(1L, 13L, 4, StockChangedEvent.ChangeType.SALE));
+        index.onStockChanged(new StockChangedEvent(1L, 11L, 20, StockChangedEvent.ChangeType.ADJUSTMENT));
+
+        List<LowStockItem> top = index.top(1L, 10);
+        assertEquals(List.of(10L, 12L, 13L), productIds(top));
+        assertEquals(10, top.get(0).shortfall());
+        assertEquals(0, top.get(0).currentStock());
+        assertEquals(List.of(10L), productIds(index.top(2L, 10)));
+    }
+
+    @Test
+    void onStockChanged_ReadsTheLevelWhenTheSaleDidNotReportIt() {
+        when(referenceDataCache.findProduct(13L)).thenReturn(Optional.of(product(13L, "Rice", 5)));
+        when(inventoryRepository.findCurrentStock(1L, 13L)).thenReturn(Optional.of(2));
+
+        index.onStockChanged(new StockChangedEvent(1L, 13L, null, StockChangedEvent.ChangeType.SALE));
+
+        assertTrue(productIds(index.top(1L, 10)).contains(13L));
+        verify(inventoryRepository).findCurrentStock(1L, 13L);
+    }
+
+    @Test
+    void onStockChanged_IgnoresAChangeOlderThanTheLastApplied() {
+        when(referenceDataCache.findProduct(10L)).thenReturn(Optional.of(product(10L, "Milk", 10)));
+        StockChangedEvent sold = new StockChangedEvent(1L, 10L, 2, StockChangedEvent.ChangeType.SALE);
+        StockChangedEvent restocked = new StockChangedEvent(1L, 10L, 40, StockChangedEvent.ChangeType.ADJUSTMENT);
+
+        // the restock committed after the sale, but its listener ran first
+        index.onStockChanged(restocked);
+        index.onStockChanged(sold);
+
+        assertFalse(productIds(index.top(1L, 10)).contains(10L));
+    }
+
+    @Test
+    void onStockChanged_ReadsTheLevelFromTheLedgerWhenEnabled() {
+        when(referenceDataCache.findProduct(13L)).thenReturn(Optional.of(product(13L, "Rice", 5)));
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.available(1L, 13L)).thenReturn(OptionalInt.of(1));
+
+        index.onStockChanged(new StockChangedEvent(1L, 13L, 4, StockChangedEvent.ChangeType.SALE));
+
+        assertEquals(1, index.top(1L, 10).stream().filter(item -> item.productId() == 13L).findFirst()
+                .orElseThrow().currentStock());
+        verify(inventoryRepository, never()).findCurrentStock(anyLong(), anyLong());
+    }
+
+    @Test
+    void productChanged_ReloadsTheProductInEveryStore() {
+        when(inventoryRepository.findLowStockItemsByProduct(10L)).thenReturn(List.of(
+                new LowStockItem(1L, 10L, "Milk", "SKU010", 8, 30)));
+
+        index.productChanged(10L);
+
+        assertEquals(List.of(10L, 11L, 12L), productIds(index.top(1L, 10)));
+        assertTrue(index.top(2L, 10).isEmpty());
+    }
+
+    private static Product product(Long id, String name, int minStorageQty) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setMinStorageQty(minStorageQty);
+        return product;
+    }
+
+    private static List<Long> productIds(List<LowStockItem> items) {
+        return items.stream().map(LowStockItem::productId).toList();
+    }
+}
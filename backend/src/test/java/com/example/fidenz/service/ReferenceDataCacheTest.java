@@ -0,0 +1,101 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.ReferenceDataListener;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.event.ReferenceDataChangedEvent;
+import com.example.fidenz.exception.EntityNotFoundException;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDataCache cache;
+    private Product product;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReferenceDataCache(productRepository, storeRepository, meterRegistry, Duration.ofMinutes(10), 100);
+        product = new Product();
+        product.setId(1L);
+        store = new Store();
+        store.setId(2L);
+    }
+
+    @Test
+    void getProduct_LoadsOnceAndCountsHits() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertSame(product, cache.getProduct(1L));
+        assertSame(product, cache.getProduct(1L));
+        assertSame(product, cache.getProduct(1L));
+
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void getStore_UnknownIdThrowsNotFound() {
+        when(storeRepository.findById(9L)).thenReturn(Optional.empty());
+
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class, () -> cache.getStore(9L));
+        assertEquals("Store with id 9 not found", e.getMessage());
+        assertThrows(EntityNotFoundException.class, () -> cache.getStore(9L));
+        verify(storeRepository, times(1)).findById(9L);
+    }
+
+    @Test
+    void invalidate_ReloadsOnlyTheWrittenEntry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(storeRepository.findById(2L)).thenReturn(Optional.of(store));
+        cache.getProduct(1L);
+        cache.getStore(2L);
+
+        cache.invalidateProduct(1L);
+        cache.getProduct(1L);
+        cache.getStore(2L);
+
+        verify(productRepository, times(2)).findById(1L);
+        verify(storeRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void listener_DropsWrittenProductsAndStores() {
+        when(productRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(product));
+        when(storeRepository.findById(2L)).thenReturn(Optional.of(store));
+        ReferenceDataListener listener =
+                new ReferenceDataListener(event -> cache.onReferenceDataChanged((ReferenceDataChangedEvent) event));
+
+        assertTrue(cache.findProduct(1L).isEmpty());
+        cache.getStore(2L);
+        listener.onUpdate(product);
+        listener.onUpdate(store);
+
+        assertSame(product, cache.getProduct(1L));
+        cache.getStore(2L);
+        verify(storeRepository, times(2)).findById(2L);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ReorderBatchReport;
+import com.example.fidenz.dto.ReorderRecommendationMapper;
+import com.example.fidenz.dto.ReorderRecommendationResponse;
+import com.example.fidenz.dto.ReorderSnapshot;
+import com.example.fidenz.dto.StoreReorderResult;
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.exception.EntityNotFoundException;
+import com.example.fidenz.repository.StoreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReorderBatchJobTest {
+
+    @Mock
+    private ReorderSnapshotService reorderSnapshotService;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    private ReorderBatchJob reorderBatchJob;
+
+    @BeforeEach
+    void setUp() {
+        reorderBatchJob = new ReorderBatchJob(reorderSnapshotService, storeRepository, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reorderBatchJob.shutdown();
+    }
+
+    @Test
+    void runForAllStores_AggregatesPerStoreResults() {
+        when(storeRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(reorderSnapshotService.refresh(1L)).thenReturn(snapshot(1L, 2));
+        when(reorderSnapshotService.refresh(2L)).thenReturn(snapshot(2L, 1));
+        when(reorderSnapshotService.refresh(3L)).thenReturn(snapshot(3L, 0));
+
+        ReorderBatchReport report = reorderBatchJob.runForAllStores();
+
+        assertEquals(3, report.storeCount());
+        assertEquals(3, report.succeeded());
+        assertEquals(0, report.failed());
+        assertEquals(3, report.recommendationCount());
+        assertEquals(4, report.parallelism());
+        assertEquals(List.of(1L, 2L, 3L), report.stores().stream().map(StoreReorderResult::storeId).toList());
+        assertTrue(reorderBatchJob.getLastReport().isPresent());
+    }
+
+    @Test
+    void runForAllStores_OneFailingStoreDoesNotStopOthers() {
+        when(storeRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(reorderSnapshotService.refresh(1L))
+            .thenThrow(new EntityNotFoundException("Store", 1L));
+        when(reorderSnapshotService.refresh(2L)).thenReturn(snapshot(2L, 1));
+
+        ReorderBatchReport report = reorderBatchJob.runForAllStores();
+
+        assertEquals(1, report.succeeded());
+        assertEquals(1, report.failed());
+        StoreReorderResult failed = report.stores().get(0);
+        assertFalse(failed.success());
+        assertEquals("Store with id 1 not found", failed.error());
+        assertTrue(report.stores().get(1).success());
+    }
+
+    @Test
+    void runForStores_RunsStoresConcurrently() throws InterruptedException {
+        CountDownLatch allStarted = new CountDownLatch(4);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        ReorderBatchReport report = reorderBatchJob.runForStores(List.of(1L, 2L, 3L, 4L), storeId -> {
+            threads.add(Thread.currentThread().getName());
+            allStarted.countDown();
+            try {
+                // Only completes if all four stores are in flight at the same time
+                assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+
+        assertEquals(4, report.succeeded());
+        assertEquals(4, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("reorder-batch-")));
+    }
+
+    @Test
+    void triggerAsync_RejectsConcurrentRun() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(storeRepository.findAllIds()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        assertTrue(reorderBatchJob.triggerAsync());
+        assertFalse(reorderBatchJob.triggerAsync());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reorderBatchJob.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(reorderBatchJob.isRunning());
+        verify(storeRepository, times(1)).findAllIds();
+    }
+
+    private static ReorderSnapshot snapshot(Long storeId, int recommendationCount) {
+        List<ReorderRecommendationResponse> recommendations = new ArrayList<>();
+        for (int i = 0; i < recommendationCount; i++) {
+            recommendations.add(ReorderRecommendationMapper.toResponse(new ReorderRecommendation()));
+        }
+        return new ReorderSnapshot(storeId, 1, LocalDateTime.now(), recommendations);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.ReorderRecommendationRepository;
+import com.example.fidenz.repository.StoreRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trip benchmark for writing a store's reorder recommendations: the previous per-row
+ * find-and-save path against the batched upsert used by {@link ReorderService}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@Transactional
+@DisplayName("Reorder recommendation write round trips")
+class ReorderRecommendationWriteBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorderRecommendationWriteBenchmarkTest.class);
+
+    private static final int SKU_COUNT = 40;
+
+    @Autowired
+    private ReorderService reorderService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReorderRecommendationRepository reorderRecommendationRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store store;
+
+    @BeforeEach
+    void setUpStore() {
+        store = new Store();
+        store.setName("Upsert Benchmark Store");
+        store.setLocation("Benchmark Street");
+        store.setContactNumber("5550001");
+        store = storeRepository.save(store);
+
+        // Out of stock SKUs without sales, so every one of them gets a recommendation
+        for (int i = 0; i < SKU_COUNT; i++) {
+            Product product = new Product();
+            product.setName("Upsert SKU " + i);
+            product.setUnitPrice(new BigDecimal("3.00"));
+            product.setMaxStorageQty(100);
+            product.setMinStorageQty(10);
+            product = productRepository.save(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setStore(store);
+            inventory.setCurrentStock(0);
+            inventoryRepository.save(inventory);
+        }
+    }
+
+    @Test
+    @DisplayName("Batched upsert should need far fewer round trips than per-row find-and-save")
+    void batchedUpsert_UsesFewerRoundTripsThanPerRowWrites() {
+        long perRowInsert = measure(this::writePerRow);
+        long perRowUpdate = measure(this::writePerRow);
+
+        reorderRecommendationRepository.deleteAll(
+                reorderRecommendationRepository.findByStoreIdAndProcessedWithDetails(store.getId(), false));
+        long batchedInsert = measure(() -> reorderService.generateReorderSuggestions(store.getId()));
+        long batchedUpdate = measure(() -> reorderService.generateReorderSuggestions(store.getId()));
+
+        log.info("Round trips for {} SKUs - per-row: insert {} / update {}, batched upsert: insert {} / update {}",
+                SKU_COUNT, perRowInsert, perRowUpdate, batchedInsert, batchedUpdate);
+
+        assertTrue(perRowInsert >= 2L * SKU_COUNT);
+        assertTrue(perRowUpdate >= 2L * SKU_COUNT);
+        assertTrue(batchedInsert < 10);
+        assertTrue(batchedUpdate < 10);
+        assertEquals(SKU_COUNT, reorderRecommendationRepository
+                .findByStoreIdAndProcessedWithDetails(store.getId(), false).size());
+    }
+
+    private long measure(Runnable run) {
+        entityManager.flush();
+        entityManager.clear();
+        statementCounter.reset();
+        run.run();
+        entityManager.flush();
+        return statementCounter.count();
+    }
+
+    // The write path ReorderService used before the batched upsert: a lookup and a save per SKU
+    private void writePerRow() {
+        Store managedStore = storeRepository.findById(store.getId()).orElseThrow();
+        List<Inventory> inventories = inventoryRepository.findByStoreIdWithDetails(store.getId());
+        for (Inventory inventory : inventories) {
+            ReorderRecommendation recommendation = ReorderRecommendation.builder()
+                    .product(inventory.getProduct())
+                    .store(managedStore)
+                    .currentStock(inventory.getCurrentStock())
+                    .averageDailySales(BigDecimal.ONE)
+                    .seasonalityFactor(BigDecimal.ONE)
+                    .adjustedSales(BigDecimal.ONE)
+                    .safetyStock(10)
+                    .reorderPoint(20)
+                    .recommendedQuantity(50)
+                    .processed(false)
+                    .build();
+
+            Optional<ReorderRecommendation> existing = reorderRecommendationRepository
+                    .findByProductAndStore(inventory.getProduct(), managedStore);
+            if (existing.isPresent()) {
+                existing.get().setRecommendedQuantity(recommendation.getRecommendedQuantity() + 10);
+                existing.get().setProcessed(false);
+                reorderRecommendationRepository.save(existing.get());
+            } else {
+                reorderRecommendationRepository.save(recommendation);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.event.StockChangedEvent;
+import com.example.fidenz.event.StockChangedEvent.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReorderReevaluationServiceTest {
+
+    @Mock
+    private ReorderService reorderService;
+
+    @Mock
+    private ReorderSnapshotService reorderSnapshotService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReorderReevaluationService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ReorderReevaluationService(reorderService, reorderSnapshotService, meterRegistry, 500);
+    }
+
+    @Test
+    void flush_CoalescesRepeatedChangesAndGroupsByStore() {
+        List<ReorderRecommendation> storeOne = List.of(new ReorderRecommendation());
+        when(reorderService.reevaluateProducts(eq(1L), anyCollection())).thenReturn(storeOne);
+        when(reorderService.reevaluateProducts(eq(2L), anyCollection())).thenReturn(List.of());
+
+        service.onStockChanged(sale(1L, 10L));
+        service.onStockChanged(sale(1L, 10L));
+        service.onStockChanged(sale(1L, 11L));
+        service.onStockChanged(new StockChangedEvent(2L, 10L, 5, ChangeType.ADJUSTMENT));
+        assertEquals(3.0, meterRegistry.get("reorder.dirty.queue.depth").gauge().value());
+
+        service.flush();
+
+        verify(reorderService).reevaluateProducts(eq(1L), argThat(ids -> Set.copyOf(ids).equals(Set.of(10L, 11L))));
+        verify(reorderService).reevaluateProducts(eq(2L), argThat(ids -> Set.copyOf(ids).equals(Set.of(10L))));
+        verify(reorderSnapshotService).applyUpdates(eq(1L), anyCollection(), eq(storeOne));
+        assertEquals(0.0, meterRegistry.get("reorder.dirty.queue.depth").gauge().value());
+        assertEquals(3, meterRegistry.get("reorder.recompute.lag").timer().count());
+    }
+
+    @Test
+    void flush_DoesNothingWhenNothingChanged() {
+        service.flush();
+
+        verifyNoInteractions(reorderService, reorderSnapshotService);
+    }
+
+    @Test
+    void flush_DrainsAtMostOneBatch() {
+        service = new ReorderReevaluationService(reorderService, reorderSnapshotService, meterRegistry, 2);
+        when(reorderService.reevaluateProducts(eq(1L), anyCollection())).thenReturn(List.of());
+        for (long productId = 1; productId <= 5; productId++) {
+            service.onStockChanged(sale(1L, productId));
+        }
+
+        service.flush();
+        assertEquals(3, service.pendingCount());
+        service.flush();
+        service.flush();
+
+        assertEquals(0, service.pendingCount());
+        verify(reorderService, times(3)).reevaluateProducts(eq(1L), anyCollection());
+    }
+
+    @Test
+    void flush_FailureInOneStoreDoesNotBlockOthers() {
+        when(reorderService.reevaluateProducts(eq(1L), anyCollection())).thenThrow(new IllegalStateException("boom"));
+        when(reorderService.reevaluateProducts(eq(2L), anyCollection())).thenReturn(List.of());
+        service.onStockChanged(sale(1L, 10L));
+        service.onStockChanged(sale(2L, 10L));
+
+        service.flush();
+
+        verify(reorderSnapshotService, never()).applyUpdates(eq(1L), anyCollection(), anyList());
+        verify(reorderSnapshotService).applyUpdates(eq(2L), anyCollection(), anyList());
+        assertEquals(1, service.pendingCount());
+    }
+
+    @Test
+    void flush_RetriesProductsOfAFailedStore() {
+        when(reorderService.reevaluateProducts(eq(1L), anyCollection()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(List.of());
+        service.onStockChanged(sale(1L, 10L));
+        service.onStockChanged(sale(1L, 11L));
+
+        service.flush();
+        assertEquals(2, service.pendingCount());
+        service.flush();
+
+        assertEquals(0, service.pendingCount());
+        verify(reorderService, times(2)).reevaluateProducts(eq(1L),
+                argThat(ids -> Set.copyOf(ids).equals(Set.of(10L, 11L))));
+        verify(reorderSnapshotService).applyUpdates(eq(1L), anyCollection(), anyList());
+        assertEquals(2, meterRegistry.get("reorder.recompute.lag").timer().count());
+    }
+
+    private static StockChangedEvent sale(Long storeId, Long productId) {
+        return new StockChangedEvent(storeId, productId, 3, ChangeType.SALE);
+    }
+}
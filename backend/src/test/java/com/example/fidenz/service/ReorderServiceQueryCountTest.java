@@ -0,0 +1,108 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.testdata.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@Transactional
+@DisplayName("Reorder generation statement count")
+class ReorderServiceQueryCountTest {
+
+    @Autowired
+    private ReorderService reorderService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store store;
+
+    @BeforeEach
+    void setUpStore() {
+        store = new Store();
+        store.setName("Query Count Store");
+        store.setLocation("Benchmark Street");
+        store.setContactNumber("5550000");
+        store = storeRepository.save(store);
+    }
+
+    @Test
+    @DisplayName("Statement count should not grow with the number of SKUs")
+    void generateReorderSuggestions_StatementCountIsConstantInSkuCount() {
+        addSkusWithSales(5);
+        long smallStore = countStatementsForReorderRun();
+
+        addSkusWithSales(45);
+        long largeStore = countStatementsForReorderRun();
+
+        assertEquals(smallStore, largeStore);
+    }
+
+    private long countStatementsForReorderRun() {
+        entityManager.flush();
+        entityManager.clear();
+        statementCounter.reset();
+        reorderService.generateReorderSuggestions(store.getId());
+        return statementCounter.count();
+    }
+
+    // Well stocked SKUs with a little recent demand, so the run reads sales but recommends nothing
+    private void addSkusWithSales(int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Bench SKU " + i);
+            product.setUnitPrice(new BigDecimal("2.00"));
+            product.setMaxStorageQty(1000);
+            product.setMinStorageQty(10);
+            product = productRepository.save(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setStore(store);
+            inventory.setCurrentStock(500);
+            inventoryRepository.save(inventory);
+
+            var sale = TestDataBuilder.createTestSalesTransaction(product, store, 1, product.getUnitPrice());
+            sale.setId(null);
+            sale.setTransactionDate(LocalDateTime.now().minusDays(1));
+            salesTransactionRepository.save(sale);
+        }
+    }
+}
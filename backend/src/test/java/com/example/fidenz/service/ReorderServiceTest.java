@@ -1,7 +1,9 @@
 package com.example.fidenz.service;
 
+import com.example.fidenz.dto.ProductSalesSummary;
 import com.example.fidenz.entity.*;
 import com.example.fidenz.repository.*;
+import com.example.fidenz.repository.ReorderRecommendationBatchRepository.ExistingRecommendation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +15,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +37,9 @@ class ReorderServiceTest {
     @Mock
     private StoreRepository storeRepository;
 
+    @Mock
+    private ReorderRecommendationBatchRepository reorderRecommendationBatchRepository;
+
     @InjectMocks
     private ReorderService reorderService;
 
@@ -67,7 +73,7 @@ class ReorderServiceTest {
         Long storeId = 1L;
         when(storeRepository.findById(storeId)).thenReturn(Optional.of(testStore));
         when(inventoryRepository.findByStoreIdWithDetails(storeId)).thenReturn(Arrays.asList(testInventory));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(storeId), any(), any()))
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(storeId), any(), any()))
                 .thenReturn(Arrays.asList());
 
         // When
@@ -85,17 +91,16 @@ class ReorderServiceTest {
         testInventory.setCurrentStock(0);
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
         when(inventoryRepository.findByStoreIdWithDetails(1L)).thenReturn(Arrays.asList(testInventory));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(1L), any(), any()))
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
                 .thenReturn(Arrays.asList());
-        when(reorderRecommendationRepository.findByProductAndStore(any(), any()))
-                .thenReturn(Optional.empty());
 
         // When
         List<ReorderRecommendation> result = reorderService.generateReorderSuggestions(1L);
 
         // Then
         assertNotNull(result);
-        verify(reorderRecommendationRepository).save(any(ReorderRecommendation.class));
+        assertEquals(1, result.size());
+        verify(reorderRecommendationBatchRepository).upsertAll(result);
     }
 
     @Test
@@ -104,32 +109,27 @@ class ReorderServiceTest {
         testInventory.setCurrentStock(5); // Below minStorageQty of 10
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
         when(inventoryRepository.findByStoreIdWithDetails(1L)).thenReturn(Arrays.asList(testInventory));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(1L), any(), any()))
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
                 .thenReturn(Arrays.asList());
-        when(reorderRecommendationRepository.findByProductAndStore(any(), any()))
-                .thenReturn(Optional.empty());
 
         // When
         List<ReorderRecommendation> result = reorderService.generateReorderSuggestions(1L);
 
         // Then
         assertNotNull(result);
-        verify(reorderRecommendationRepository).save(any(ReorderRecommendation.class));
+        assertEquals(1, result.size());
+        verify(reorderRecommendationBatchRepository).upsertAll(result);
     }
 
     @Test
     void testSeasonalityFactorCalculation_WithSales() {
-        // Given
-        SalesTransaction weekdayTransaction = new SalesTransaction();
-        weekdayTransaction.setProduct(testProduct);
-        weekdayTransaction.setStore(testStore);
-        weekdayTransaction.setQuantity(2);
-        weekdayTransaction.setTransactionDate(LocalDateTime.now().minusDays(1));
+        // Given - one weekday transaction of 2 units
+        ProductSalesSummary weekdaySales = new ProductSalesSummary(testProduct.getId(), 2L, 1L, 1L);
 
         when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
         when(inventoryRepository.findByStoreIdWithDetails(1L)).thenReturn(Arrays.asList(testInventory));
-        when(salesTransactionRepository.findByStoreIdAndTransactionDateBetween(eq(1L), any(), any()))
-                .thenReturn(Arrays.asList(weekdayTransaction));
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
+                .thenReturn(Arrays.asList(weekdaySales));
 
         // When
         List<ReorderRecommendation> result = reorderService.generateReorderSuggestions(1L);
@@ -138,6 +138,112 @@ class ReorderServiceTest {
         assertNotNull(result);
     }
 
+    @Test
+    void testGenerateReorderSuggestions_QueriesSalesOncePerStore() {
+        // Given - several SKUs in the same store
+        Product otherProduct = new Product();
+        otherProduct.setId(2L);
+        otherProduct.setName("Other Product");
+        otherProduct.setMaxStorageQty(100);
+        otherProduct.setMinStorageQty(10);
+
+        Inventory otherInventory = new Inventory();
+        otherInventory.setId(2L);
+        otherInventory.setStore(testStore);
+        otherInventory.setProduct(otherProduct);
+        otherInventory.setCurrentStock(40);
+
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(inventoryRepository.findByStoreIdWithDetails(1L)).thenReturn(Arrays.asList(testInventory, otherInventory));
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
+                .thenReturn(Arrays.asList(new ProductSalesSummary(2L, 4L, 2L, 1L)));
+
+        // When
+        reorderService.generateReorderSuggestions(1L);
+
+        // Then
+        verify(salesTransactionRepository, times(1)).summarizeSalesByProduct(eq(1L), any(), any());
+        verify(salesTransactionRepository, never()).findByStoreIdAndTransactionDateBetween(any(), any(), any());
+    }
+
+    @Test
+    void testGenerateReorderSuggestions_UpsertsExistingAndNewInOneBatch() {
+        // Given - two low-stock SKUs, one of which already has a stored recommendation
+        Product otherProduct = new Product();
+        otherProduct.setId(2L);
+        otherProduct.setName("Other Product");
+        otherProduct.setMaxStorageQty(100);
+        otherProduct.setMinStorageQty(10);
+
+        Inventory otherInventory = new Inventory();
+        otherInventory.setId(2L);
+        otherInventory.setStore(testStore);
+        otherInventory.setProduct(otherProduct);
+        otherInventory.setCurrentStock(0);
+        testInventory.setCurrentStock(0);
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 9, 0);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(testStore));
+        when(inventoryRepository.findByStoreIdWithDetails(1L)).thenReturn(Arrays.asList(testInventory, otherInventory));
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
+                .thenReturn(Arrays.asList());
+        when(reorderRecommendationBatchRepository.findExistingByStoreId(1L))
+                .thenReturn(Map.of(1L, new ExistingRecommendation(7L, createdAt)));
+
+        // When
+        List<ReorderRecommendation> result = reorderService.generateReorderSuggestions(1L);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(7L, result.get(0).getId());
+        assertEquals(createdAt, result.get(0).getCreatedAt());
+        assertNull(result.get(1).getId());  // assigned by the batch repository
+        assertNotNull(result.get(1).getCreatedAt());
+        verify(reorderRecommendationBatchRepository, times(1)).findExistingByStoreId(1L);
+        verify(reorderRecommendationBatchRepository, times(1)).upsertAll(result);
+        verify(reorderRecommendationRepository, never()).findByProductAndStore(any(), any());
+        verify(reorderRecommendationRepository, never()).save(any());
+    }
+
+    @Test
+    void loadSalesSummaries_keysByProductId() {
+        when(salesTransactionRepository.summarizeSalesByProduct(eq(1L), any(), any()))
+                .thenReturn(Arrays.asList(new ProductSalesSummary(1L, 10L, 3L, 2L),
+                        new ProductSalesSummary(2L, 1L, 1L, 0L)));
+
+        var summaries = reorderService.loadSalesSummaries(1L);
+
+        assertEquals(2, summaries.size());
+        assertEquals(10L, summaries.get(1L).totalQuantity());
+        assertEquals(1L, summaries.get(1L).weekendCount());
+        assertEquals(1L, summaries.get(2L).weekendCount());
+    }
+
+    @Test
+    void reevaluateProducts_readsOnlyTheGivenProducts() {
+        testInventory.setCurrentStock(0);
+        List<Long> productIds = List.of(1L);
+        when(inventoryRepository.findByStoreIdAndProductIdInWithDetails(1L, productIds))
+                .thenReturn(Arrays.asList(testInventory));
+        when(salesTransactionRepository.summarizeSalesForProducts(eq(1L), eq(productIds), any(), any()))
+                .thenReturn(Arrays.asList());
+
+        List<ReorderRecommendation> result = reorderService.reevaluateProducts(1L, productIds);
+
+        assertEquals(1, result.size());
+        verify(reorderRecommendationBatchRepository).upsertAll(result);
+        verify(inventoryRepository, never()).findByStoreIdWithDetails(any());
+        verify(salesTransactionRepository, never()).summarizeSalesByProduct(any(), any(), any());
+        verify(reorderRecommendationBatchRepository).findExistingByStoreIdAndProductIdIn(1L, productIds);
+        verify(reorderRecommendationBatchRepository, never()).findExistingByStoreId(any());
+    }
+
+    @Test
+    void reevaluateProducts_emptySelectionDoesNothing() {
+        assertTrue(reorderService.reevaluateProducts(1L, List.of()).isEmpty());
+        verifyNoInteractions(inventoryRepository, salesTransactionRepository, reorderRecommendationBatchRepository);
+    }
+
     @Test
     void testGetReorderRecommendations() {
         // Given
@@ -0,0 +1,134 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ReorderRecommendationResponse;
+import com.example.fidenz.dto.ReorderSnapshot;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.ReorderRecommendation;
+import com.example.fidenz.exception.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReorderSnapshotServiceTest {
+
+    @Mock
+    private ReorderService reorderService;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Test
+    void getSnapshot_ServesLatestSnapshotWhileFresh() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(reorderService.generateReorderSuggestions(1L)).thenReturn(List.of(new ReorderRecommendation()));
+
+        ReorderSnapshot first = service.getSnapshot(1L, false);
+        ReorderSnapshot second = service.getSnapshot(1L, false);
+
+        assertSame(first, second);
+        assertEquals(1, first.version());
+        assertEquals(1, first.recommendations().size());
+        assertNotNull(first.computedAt());
+        verify(reorderService, times(1)).generateReorderSuggestions(1L);
+    }
+
+    @Test
+    void getSnapshot_RecomputesWhenRefreshRequested() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(reorderService.generateReorderSuggestions(1L)).thenReturn(List.of());
+
+        ReorderSnapshot first = service.getSnapshot(1L, false);
+        ReorderSnapshot refreshed = service.getSnapshot(1L, true);
+
+        assertEquals(1, first.version());
+        assertEquals(2, refreshed.version());
+        assertSame(refreshed, service.getSnapshot(1L, false));
+        verify(reorderService, times(2)).generateReorderSuggestions(1L);
+    }
+
+    @Test
+    void getSnapshot_ServesStaleSnapshotWhileRecomputingIt() {
+        ReorderSnapshotService service = service(Duration.ZERO);
+        when(reorderService.generateReorderSuggestions(1L)).thenReturn(List.of());
+
+        service.getSnapshot(1L, false);
+        ReorderSnapshot stale = service.getSnapshot(1L, false);
+
+        assertEquals(1, stale.version());
+        verify(reorderService, times(2)).generateReorderSuggestions(1L);
+        assertEquals(2, service.getSnapshot(1L, false).version());
+    }
+
+    @Test
+    void getSnapshot_RejectsUnknownStoreBeforeComputing() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(referenceDataCache.getStore(99L)).thenThrow(new EntityNotFoundException("Store", 99L));
+
+        assertThrows(EntityNotFoundException.class, () -> service.getSnapshot(99L, false));
+        verify(reorderService, never()).generateReorderSuggestions(anyLong());
+    }
+
+    @Test
+    void getSnapshot_KeepsSnapshotsPerStore() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(reorderService.generateReorderSuggestions(anyLong())).thenReturn(List.of());
+
+        service.refresh(1L);
+        service.refresh(1L);
+        ReorderSnapshot other = service.getSnapshot(2L, false);
+
+        assertEquals(2L, other.storeId());
+        assertEquals(1, other.version());
+    }
+
+    @Test
+    void applyUpdates_ReplacesOnlyReevaluatedProducts() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(reorderService.generateReorderSuggestions(1L))
+                .thenReturn(List.of(recommendation(1L, 10), recommendation(2L, 20), recommendation(3L, 30)));
+        ReorderSnapshot initial = service.refresh(1L);
+
+        // product 1 changed quantity, product 2 no longer needs a reorder
+        service.applyUpdates(1L, List.of(1L, 2L), List.of(recommendation(1L, 50)));
+
+        ReorderSnapshot patched = service.getSnapshot(1L, false);
+        assertEquals(2, patched.version());
+        assertEquals(initial.computedAt(), patched.computedAt());
+        assertEquals(List.of(1L, 3L), patched.recommendations().stream()
+                .map(ReorderRecommendationResponse::productId).toList());
+        assertEquals(50, patched.recommendations().get(0).recommendedQuantity());
+        verify(reorderService, times(1)).generateReorderSuggestions(1L);
+    }
+
+    @Test
+    void applyUpdates_IgnoresStoreWithoutSnapshot() {
+        ReorderSnapshotService service = service(Duration.ofMinutes(15));
+        when(reorderService.generateReorderSuggestions(1L)).thenReturn(List.of());
+
+        service.applyUpdates(1L, List.of(1L), List.of(recommendation(1L, 10)));
+
+        assertEquals(1, service.getSnapshot(1L, false).version());
+    }
+
+    // background recomputes run on the calling thread
+    private ReorderSnapshotService service(Duration maxAge) {
+        return new ReorderSnapshotService(reorderService, referenceDataCache, maxAge, Runnable::run);
+    }
+
+    private static ReorderRecommendation recommendation(Long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        ReorderRecommendation recommendation = new ReorderRecommendation();
+        recommendation.setProduct(product);
+        recommendation.setRecommendedQuantity(quantity);
+        return recommendation;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Sales export")
+class SalesExportServiceTest {
+
+    @Autowired
+    private SalesExportService salesExportService;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Store store;
+    private final List<SalesTransaction> sales = new ArrayList<>();
+
+    @BeforeEach
+    void setUpSales() {
+        store = storeRepository.findById(2L).orElseThrow();
+        Product product = productRepository.findById(3L).orElseThrow();
+        LocalDateTime base = LocalDateTime.of(2024, 5, 10, 9, 30);
+        for (int i = 0; i < 3; i++) {
+            sales.add(salesTransactionRepository.save(SalesTransaction.builder()
+                    .store(store)
+                    .product(product)
+                    .quantity(i + 1)
+                    .unitPrice(new BigDecimal("2.50"))
+                    .totalAmount(new BigDecimal("2.50").multiply(BigDecimal.valueOf(i + 1)))
+                    .transactionDate(base.plusDays(2 - i))
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("CSV export should write a header and one line per sale, oldest first")
+    void export_Csv_WritesOneLinePerSale() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = salesExportService.export(store.getId(), SalesExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(4, lines.length);
+        assertEquals("id,transaction_date,store_id,product_id,quantity,unit_price,total_amount", lines[0]);
+        SalesTransaction oldest = sales.get(2);
+        assertEquals(oldest.getId() + ",2024-05-10T09:30," + store.getId() + ",3,3,2.50,7.50", lines[1]);
+    }
+
+    @Test
+    @DisplayName("NDJSON export should write one JSON object per line")
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = salesExportService.export(store.getId(), SalesExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(3, lines.length);
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertEquals(store.getId(), row.get("storeId").asLong());
+            ids.add(row.get("id").asLong());
+        }
+        assertEquals(List.of(sales.get(2).getId(), sales.get(1).getId(), sales.get(0).getId()), ids);
+    }
+
+    @Test
+    @DisplayName("Unknown formats should be rejected")
+    void parse_UnknownFormat_Throws() {
+        assertEquals(SalesExportService.Format.CSV, SalesExportService.Format.parse("csv"));
+        assertThrows(IllegalArgumentException.class, () -> SalesExportService.Format.parse("xml"));
+    }
+}
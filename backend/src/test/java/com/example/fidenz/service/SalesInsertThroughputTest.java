@@ -0,0 +1,150 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.entity.IdAllocation;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.IdAllocationRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert throughput for sales rows: one statement per row, which is what IDENTITY ids forced on
+ * every saveAll, against saveAll with table-allocated ids and Hibernate JDBC batching.
+ * Runs 10,000 rows by default; pass -Dsales.insert.rows=1000000 for the full-size comparison.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@Transactional
+@DisplayName("Sales insert throughput")
+class SalesInsertThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesInsertThroughputTest.class);
+
+    private static final int ROWS = Integer.getInteger("sales.insert.rows", 10_000);
+    // flushed and cleared per chunk so the persistence context stays small for large runs
+    private static final int CHUNK = 5_000;
+
+    private static final String INSERT_SALE_SQL = """
+            INSERT INTO sales_transactions (id, store_id, product_id, quantity, unit_price, total_amount,
+                transaction_date, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdAllocationRepository idAllocationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    @DisplayName("Batched saveAll should insert the same rows with a fraction of the round trips")
+    void batchedSaveAll_UsesFewerRoundTripsThanPerRowInserts() {
+        Store store = storeRepository.findById(1L).orElseThrow();
+        Product product = productRepository.findById(1L).orElseThrow();
+        long before = salesTransactionRepository.count();
+
+        statementCounter.reset();
+        long start = System.nanoTime();
+        insertPerRow(store, product);
+        long perRowNanos = System.nanoTime() - start;
+        long perRowStatements = statementCounter.count();
+
+        statementCounter.reset();
+        start = System.nanoTime();
+        insertBatched(store, product);
+        long batchedNanos = System.nanoTime() - start;
+        long batchedStatements = statementCounter.count();
+
+        log.info("{} sales rows - per-row inserts: {} statements, {} rows/s; batched saveAll: {} statements, {} rows/s",
+                ROWS, perRowStatements, rowsPerSecond(perRowNanos), batchedStatements, rowsPerSecond(batchedNanos));
+
+        assertEquals(before + 2L * ROWS, salesTransactionRepository.count());
+        assertTrue(perRowStatements >= ROWS);
+        // per ALLOCATION_SIZE rows: one insert batch and one id block (select + update), plus slack
+        long batchedBound = 4L * ((ROWS + IdAllocation.ALLOCATION_SIZE - 1) / IdAllocation.ALLOCATION_SIZE);
+        assertTrue(batchedStatements <= batchedBound,
+                "Expected at most " + batchedBound + " statements but was " + batchedStatements);
+    }
+
+    private void insertPerRow(Store store, Product product) {
+        long firstId = idAllocationRepository.allocate("sales_transactions", ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            SalesTransaction sale = sale(store, product, i, now);
+            jdbcTemplate.update(INSERT_SALE_SQL, firstId + i, store.getId(), product.getId(), sale.getQuantity(),
+                    sale.getUnitPrice(), sale.getTotalAmount(), Timestamp.valueOf(sale.getTransactionDate()),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now));
+        }
+    }
+
+    private void insertBatched(Store store, Product product) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < ROWS; from += CHUNK) {
+            Store managedStore = entityManager.getReference(Store.class, store.getId());
+            Product managedProduct = entityManager.getReference(Product.class, product.getId());
+            List<SalesTransaction> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + CHUNK, ROWS); i++) {
+                chunk.add(sale(managedStore, managedProduct, i, now));
+            }
+            salesTransactionRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private static SalesTransaction sale(Store store, Product product, int i, LocalDateTime now) {
+        int quantity = i % 5 + 1;
+        BigDecimal unitPrice = new BigDecimal("1.50");
+        return SalesTransaction.builder()
+                .store(store)
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(unitPrice)
+                .totalAmount(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                .transactionDate(now.minusMinutes(i))
+                .build();
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.ProductRevenue;
+import com.example.fidenz.dto.ProductSalesSummary;
+import com.example.fidenz.entity.DailySalesRollup;
+import com.example.fidenz.entity.DailySalesRollupId;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.DailySalesRollupRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import com.example.fidenz.testdata.TestDataBuilder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Daily sales rollup")
+class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ReorderService reorderService;
+
+    @Autowired
+    private AbcAnalysisService abcAnalysisService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Recording a sale should add it to the day row")
+    void recordSale_UpdatesRollupInSameTransaction() {
+        salesService.recordSale(TestDataBuilder.createSalesTransactionRequest(1L, 1L, 2, new BigDecimal("10.00")));
+        salesService.recordSale(TestDataBuilder.createSalesTransactionRequest(1L, 1L, 3, new BigDecimal("10.00")));
+        entityManager.clear();
+
+        DailySalesRollup rollup = dailySalesRollupRepository
+                .findById(new DailySalesRollupId(1L, 1L, LocalDate.now()))
+                .orElseThrow();
+
+        assertEquals(5L, rollup.getQuantity());
+        assertEquals(0, new BigDecimal("50.00").compareTo(rollup.getRevenue()));
+        assertEquals(2L, rollup.getTransactionCount());
+        assertEquals(SalesRollupService.isWeekday(LocalDate.now()), rollup.getWeekday());
+    }
+
+    @Test
+    @DisplayName("Backfilled rollup should give the same aggregates as raw transactions")
+    void backfillStore_MatchesRawTransactionAggregates() {
+        Store store = storeRepository.findById(1L).orElseThrow();
+        Product first = productRepository.findById(1L).orElseThrow();
+        Product second = productRepository.findById(2L).orElseThrow();
+        for (int day = 1; day <= 20; day++) {
+            saveSale(first, store, day % 4 + 1, new BigDecimal("10.00"), day);
+            saveSale(first, store, 1, new BigDecimal("10.00"), day);
+            if (day % 3 == 0) {
+                saveSale(second, store, day, new BigDecimal("20.00"), day);
+            }
+        }
+
+        int rows = salesRollupService.backfillStore(1L);
+        entityManager.flush();
+        entityManager.clear();
+
+        // first sells every day, second every third day
+        assertEquals(20 + 6, rows);
+
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(30);
+        List<ProductSalesSummary> raw = salesTransactionRepository.summarizeSalesByProduct(1L, start, end);
+        List<ProductSalesSummary> rolled = salesRollupService
+                .summarizeSalesByProduct(1L, start.toLocalDate(), end.toLocalDate());
+        assertEquals(sortByProduct(raw), sortByProduct(rolled));
+
+        Map<Long, BigDecimal> rawRevenue = byProductId(salesTransactionRepository.sumRevenueByProduct(1L, start, end));
+        Map<Long, BigDecimal> rolledRevenue = byProductId(salesRollupService
+                .sumRevenueByProduct(1L, start.toLocalDate(), end.toLocalDate()));
+        assertEquals(rawRevenue.keySet(), rolledRevenue.keySet());
+        rawRevenue.forEach((productId, revenue) -> assertEquals(0, revenue.compareTo(rolledRevenue.get(productId))));
+    }
+
+    @Test
+    @DisplayName("Reorder and ABC figures should not change when read from the rollup")
+    void analyticsWindows_MatchBetweenRollupAndRawTransactions() {
+        Store store = storeRepository.findById(1L).orElseThrow();
+        Product product = productRepository.findById(1L).orElseThrow();
+        for (int day = 1; day <= 29; day++) {
+            saveSale(product, store, day % 3 + 1, new BigDecimal("10.00"), day);
+        }
+        // the first day of a 30 day window only counts from the current time of day, so a sale at its
+        // start falls outside both windows
+        SalesTransaction boundary = TestDataBuilder.createTestSalesTransaction(product, store, 50, new BigDecimal("10.00"));
+        boundary.setId(null);
+        boundary.setTransactionDate(LocalDate.now().minusDays(30).atStartOfDay());
+        salesTransactionRepository.save(boundary);
+        salesRollupService.backfillStore(1L);
+        entityManager.flush();
+        entityManager.clear();
+
+        ReorderService reorder = AopTestUtils.getUltimateTargetObject(reorderService);
+        AbcAnalysisService abc = AopTestUtils.getUltimateTargetObject(abcAnalysisService);
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(30);
+        Map<Long, ProductSalesSummary> rawSummaries = reorder.loadSalesSummaries(1L);
+        Map<Long, Long> rawRevenue = revenueByProductId(abc.loadRevenueByProduct(1L, start, end));
+        try {
+            ReflectionTestUtils.setField(reorder, "useRollups", true);
+            ReflectionTestUtils.setField(abc, "useRollups", true);
+
+            assertEquals(rawSummaries, reorder.loadSalesSummaries(1L));
+            assertEquals(rawRevenue, revenueByProductId(abc.loadRevenueByProduct(1L, start, end)));
+        } finally {
+            ReflectionTestUtils.setField(reorder, "useRollups", false);
+            ReflectionTestUtils.setField(abc, "useRollups", false);
+        }
+    }
+
+    @Test
+    @DisplayName("Backfill should replace existing rows rather than add to them")
+    void backfillStore_IsRepeatable() {
+        Store store = storeRepository.findById(1L).orElseThrow();
+        Product product = productRepository.findById(1L).orElseThrow();
+        saveSale(product, store, 4, new BigDecimal("10.00"), 2);
+
+        salesRollupService.backfillStore(1L);
+        salesRollupService.backfillStore(1L);
+        entityManager.flush();
+        entityManager.clear();
+
+        DailySalesRollup rollup = dailySalesRollupRepository
+                .findById(new DailySalesRollupId(1L, 1L, LocalDate.now().minusDays(2)))
+                .orElseThrow();
+        assertEquals(4L, rollup.getQuantity());
+        assertEquals(1L, rollup.getTransactionCount());
+    }
+
+    private void saveSale(Product product, Store store, int quantity, BigDecimal unitPrice, int daysAgo) {
+        SalesTransaction sale = TestDataBuilder.createTestSalesTransaction(product, store, quantity, unitPrice);
+        sale.setId(null);
+        sale.setTransactionDate(LocalDate.now().minusDays(daysAgo).atTime(12, 0));
+        salesTransactionRepository.save(sale);
+    }
+
+    private static List<ProductSalesSummary> sortByProduct(List<ProductSalesSummary> summaries) {
+        return summaries.stream().sorted(Comparator.comparing(ProductSalesSummary::productId)).toList();
+    }
+
+    private static Map<Long, Long> revenueByProductId(Map<Product, Long> revenue) {
+        return revenue.entrySet().stream().collect(Collectors.toMap(entry -> entry.getKey().getId(), Map.Entry::getValue));
+    }
+
+    private static Map<Long, BigDecimal> byProductId(List<ProductRevenue> revenues) {
+        return revenues.stream().collect(Collectors.toMap(ProductRevenue::productId, ProductRevenue::revenue));
+    }
+}
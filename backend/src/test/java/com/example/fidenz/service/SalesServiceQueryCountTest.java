@@ -0,0 +1,126 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.config.StatementCounter;
+import com.example.fidenz.dto.CursorPage;
+import com.example.fidenz.dto.SalesTransactionRequest;
+import com.example.fidenz.dto.SalesTransactionResponse;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.SalesTransaction;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StoreRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statements issued by the sales service: {@link SalesService#recordSale} with the product and store served
+ * from {@link ReferenceDataCache} against the same sale after both entries were dropped, and a page of
+ * sales history read and serialized.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@Transactional
+@DisplayName("Sales service query count")
+class SalesServiceQueryCountTest {
+
+    // a sale may also fetch a block of sales ids; the cheapest of a few runs is the one that did not
+    private static final int RUNS = 3;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SalesTransactionRequest sale = new SalesTransactionRequest(1L, 1L, 1, new BigDecimal("2.50"));
+
+    @Test
+    @DisplayName("Cached product and store should save two queries per sale")
+    void recordSale_WithCachedReferenceData_SkipsProductAndStoreQueries() {
+        salesService.recordSale(sale);
+        entityManager.flush();
+
+        long warm = Long.MAX_VALUE;
+        long cold = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            warm = Math.min(warm, countStatements());
+
+            referenceDataCache.invalidateProduct(1L);
+            referenceDataCache.invalidateStore(1L);
+            cold = Math.min(cold, countStatements());
+        }
+
+        assertEquals(cold - 2, warm);
+    }
+
+    private long countStatements() {
+        entityManager.clear();
+        statementCounter.reset();
+        salesService.recordSale(sale);
+        entityManager.flush();
+        return statementCounter.count();
+    }
+
+    @Test
+    @DisplayName("A page of sales should be read and serialized with a single statement")
+    void getSalesByStore_ReadsAndSerializesPageWithOneStatement() throws Exception {
+        Store store = storeRepository.findById(2L).orElseThrow();
+        List<Product> products = productRepository.findAllById(List.of(1L, 2L, 3L));
+        LocalDateTime base = LocalDateTime.of(2024, 6, 1, 8, 0);
+        for (int i = 0; i < 30; i++) {
+            salesTransactionRepository.save(SalesTransaction.builder()
+                    .store(store)
+                    .product(products.get(i % products.size()))
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("1.00"))
+                    .totalAmount(new BigDecimal("1.00"))
+                    .transactionDate(base.plusMinutes(i))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statementCounter.reset();
+        CursorPage<SalesTransactionResponse> page = salesService.getSalesByStore(2L, null, 25);
+        String json = objectMapper.writeValueAsString(page);
+
+        assertEquals(1, statementCounter.count());
+        assertEquals(25, page.items().size());
+        assertNotNull(page.nextCursor());
+        assertEquals(store.getName(), page.items().get(0).store().name());
+        assertTrue(json.contains("\"product\":{\"id\":"));
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.StockLedgerRepository;
+import com.example.fidenz.repository.StockLedgerRepository.StockDelta;
+import com.example.fidenz.repository.StockLedgerRepository.StockLevel;
+import com.example.fidenz.service.StockLedger.Durability;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    @Mock
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventorySnapshotCache inventorySnapshotCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new StockLedger(stockLedgerRepository, inventoryRepository, inventorySnapshotCache, meterRegistry,
+                true, Durability.BATCHED);
+        when(stockLedgerRepository.loadAll()).thenReturn(List.of(new StockLevel(1L, 10L, 5), new StockLevel(1L, 11L, 3)));
+        ledger.load();
+    }
+
+    @Test
+    void take_RefusesMoreThanAvailable() {
+        assertEquals(2, ledger.take(1L, 10L, 3));
+        assertEquals(-1, ledger.take(1L, 10L, 3));
+        assertEquals(OptionalInt.of(2), ledger.available(1L, 10L));
+    }
+
+    @Test
+    void take_LoadsRowsCreatedAfterStartup() {
+        when(stockLedgerRepository.loadStock(1L, List.of(12L))).thenReturn(List.of(new StockLevel(1L, 12L, 4)));
+
+        assertEquals(3, ledger.take(1L, 12L, 1));
+        assertEquals(OptionalInt.of(3), ledger.available(1L, 12L));
+    }
+
+    @Test
+    void take_UnknownInventoryIsNotAvailable() {
+        when(stockLedgerRepository.loadStock(2L, List.of(10L))).thenReturn(List.of());
+
+        assertEquals(-1, ledger.take(2L, 10L, 1));
+        assertTrue(ledger.available(2L, 10L).isEmpty());
+    }
+
+    @Test
+    void flush_WritesBackSoldUnitsPerRowOnce() {
+        ledger.take(1L, 10L, 1);
+        ledger.take(1L, 10L, 2);
+        ledger.take(1L, 11L, 1);
+        assertEquals(2.0, meterRegistry.get("inventory.ledger.dirty").gauge().value());
+
+        ledger.flush();
+
+        verify(stockLedgerRepository).subtractAll(argThat(deltas -> deltas.size() == 2
+                && deltas.containsAll(List.of(new StockDelta(1L, 10L, 3), new StockDelta(1L, 11L, 1)))), any());
+        assertEquals(0, ledger.dirtyCount());
+        verify(inventorySnapshotCache).storesChanged(List.of(1L));
+
+        ledger.flush();
+        verify(stockLedgerRepository, times(1)).subtractAll(anyList(), any());
+    }
+
+    @Test
+    void flush_KeepsSalesBufferedWhenWriteBackFails() {
+        ledger.take(1L, 10L, 2);
+        doThrow(new IllegalStateException("database down"))
+                .doNothing()
+                .when(stockLedgerRepository).subtractAll(anyList(), any());
+
+        ledger.flush();
+        assertEquals(1, ledger.dirtyCount());
+
+        ledger.flush();
+        verify(stockLedgerRepository, times(2)).subtractAll(eq(List.of(new StockDelta(1L, 10L, 2))), any());
+        assertEquals(0, ledger.dirtyCount());
+    }
+
+    @Test
+    void stockSold_KeepsBufferedSales() {
+        ledger.take(1L, 10L, 2);
+        // another path sold one unit in the database, which does not include the two buffered here
+        when(stockLedgerRepository.loadStock(1L, List.of(10L))).thenReturn(List.of(new StockLevel(1L, 10L, 4)));
+
+        ledger.stockSold(1L, List.of(10L));
+
+        assertEquals(OptionalInt.of(2), ledger.available(1L, 10L));
+        ledger.flush();
+        verify(stockLedgerRepository).subtractAll(eq(List.of(new StockDelta(1L, 10L, 2))), any());
+    }
+
+    @Test
+    void stockAdjusted_DropsBufferedSales() {
+        ledger.take(1L, 10L, 2);
+        when(stockLedgerRepository.loadStock(1L, List.of(10L))).thenReturn(List.of(new StockLevel(1L, 10L, 20)));
+
+        ledger.stockAdjusted(1L, List.of(10L));
+
+        assertEquals(OptionalInt.of(20), ledger.available(1L, 10L));
+        ledger.flush();
+        verify(stockLedgerRepository, never()).subtractAll(anyList(), any());
+    }
+
+    @Test
+    void stockAdjusted_KeepsSalesTakenWhileTheAdjustmentCommits() {
+        ledger.take(1L, 10L, 2);
+        when(stockLedgerRepository.loadStock(1L, List.of(10L))).thenReturn(List.of(new StockLevel(1L, 10L, 20)));
+
+        List<TransactionSynchronization> adjustment = inTransaction(() -> {
+            ledger.beginAdjustment();
+            ledger.stockAdjusted(1L, List.of(10L));
+        });
+        // a sale made between the count and its commit is not part of the counted 20
+        ledger.take(1L, 10L, 1);
+        complete(adjustment, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(OptionalInt.of(19), ledger.available(1L, 10L));
+        ledger.flush();
+        verify(stockLedgerRepository).subtractAll(eq(List.of(new StockDelta(1L, 10L, 1))), any());
+    }
+
+    @Test
+    void stockAdjusted_SaleRolledBackAfterTheCountGivesNothingBack() {
+        List<TransactionSynchronization> sale = inTransaction(() -> ledger.take(1L, 10L, 2));
+        when(stockLedgerRepository.loadStock(1L, List.of(10L))).thenReturn(List.of(new StockLevel(1L, 10L, 20)));
+        List<TransactionSynchronization> adjustment = inTransaction(() -> {
+            ledger.beginAdjustment();
+            ledger.stockAdjusted(1L, List.of(10L));
+        });
+
+        complete(sale, TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(adjustment, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(OptionalInt.of(20), ledger.available(1L, 10L));
+        ledger.flush();
+        verify(stockLedgerRepository, never()).subtractAll(anyList(), any());
+    }
+
+    @Test
+    void stockAdjusted_RolledBackAdjustmentKeepsBufferedSales() {
+        List<TransactionSynchronization> sale = inTransaction(() -> ledger.take(1L, 10L, 2));
+        ledger.take(1L, 10L, 1);
+        List<TransactionSynchronization> adjustment = inTransaction(() -> {
+            ledger.beginAdjustment();
+            ledger.stockAdjusted(1L, List.of(10L));
+        });
+
+        complete(sale, TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(adjustment, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(OptionalInt.of(4), ledger.available(1L, 10L));
+        ledger.flush();
+        verify(stockLedgerRepository).subtractAll(eq(List.of(new StockDelta(1L, 10L, 1))), any());
+    }
+
+    @Test
+    void stockAdjusted_RequiresBeginAdjustmentInsideATransaction() {
+        inTransaction(() -> assertThrows(IllegalStateException.class, () -> ledger.stockAdjusted(1L, List.of(10L))));
+    }
+
+    @Test
+    void reserve_TakesUnitsWithoutBufferingThem() {
+        ledger.take(1L, 10L, 3);
+
+        assertEquals(-1, ledger.reserve(1L, 10L, 3));
+        assertEquals(0, ledger.reserve(1L, 10L, 2));
+        assertEquals(-1, ledger.take(1L, 10L, 1));
+
+        ledger.flush();
+        verify(stockLedgerRepository).subtractAll(eq(List.of(new StockDelta(1L, 10L, 3))), any());
+    }
+
+    @Test
+    void take_SyncDurabilityWritesThroughAndResyncsWhenTheRowHasLess() {
+        ledger = new StockLedger(stockLedgerRepository, inventoryRepository, inventorySnapshotCache, meterRegistry,
+                true, Durability.SYNC);
+        ledger.load();
+        when(inventoryRepository.decrementStock(eq(1L), eq(10L), eq(1), any())).thenReturn(1);
+        when(inventoryRepository.decrementStock(eq(1L), eq(10L), eq(2), any())).thenReturn(0);
+        when(inventoryRepository.findCurrentStock(1L, 10L)).thenReturn(Optional.of(1));
+
+        assertEquals(4, ledger.take(1L, 10L, 1));
+        assertEquals(-1, ledger.take(1L, 10L, 2));
+        assertEquals(OptionalInt.of(1), ledger.available(1L, 10L));
+
+        ledger.flush();
+        verify(stockLedgerRepository, never()).subtractAll(anyList(), any());
+    }
+
+    @Test
+    void take_ConcurrentSalesNeverOversell() throws Exception {
+        int threads = 8;
+        when(stockLedgerRepository.loadStock(1L, List.of(20L))).thenReturn(List.of(new StockLevel(1L, 20L, 1000)));
+        ledger.available(1L, 20L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    startGate.await();
+                    int sold = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (ledger.take(1L, 20L, 1) >= 0) {
+                            sold++;
+                        }
+                    }
+                    return sold;
+                }));
+            }
+            startGate.countDown();
+            int sold = 0;
+            for (Future<Integer> result : results) {
+                sold += result.get();
+            }
+
+            assertEquals(1000, sold);
+            assertEquals(OptionalInt.of(0), ledger.available(1L, 20L));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ledger.flush();
+        verify(stockLedgerRepository).subtractAll(eq(List.of(new StockDelta(1L, 20L, 1000))), any());
+    }
+
+    @Test
+    void disabledLedgerIsNotUsed() {
+        StockLedger disabled = new StockLedger(stockLedgerRepository, inventoryRepository, inventorySnapshotCache,
+                new SimpleMeterRegistry(), false, Durability.BATCHED);
+
+        assertFalse(disabled.isEnabled());
+        assertThrows(IllegalStateException.class, () -> disabled.take(1L, 10L, 1));
+    }
+
+    // Runs work with transaction synchronization active and returns what it registered, still pending
+    private static List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.fidenz.service;
+
+import com.example.fidenz.dto.SalesBatchResponse;
+import com.example.fidenz.dto.SalesTransactionRequest;
+import com.example.fidenz.entity.Inventory;
+import com.example.fidenz.entity.Product;
+import com.example.fidenz.entity.Store;
+import com.example.fidenz.repository.InventoryRepository;
+import com.example.fidenz.repository.ProductRepository;
+import com.example.fidenz.repository.SalesBatchRepository;
+import com.example.fidenz.repository.SalesTransactionRepository;
+import com.example.fidenz.repository.StockLedgerRepository;
+import com.example.fidenz.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sales per second of {@link SalesService#recordSale} with the stock ledger (BATCHED durability)
+ * against the database path, several threads selling the same SKU. Each path sells its own
+ * product so the two runs do not share stock. Also checks that batch sales see the sales still
+ * buffered in the ledger. Runs without a test transaction so every sale commits.
+ */
+@SpringBootTest(properties = {"inventory.ledger.enabled=true", "reorder.dirty.flush-interval=PT1H"})
+@ActiveProfiles("test")
+@DisplayName("Stock ledger throughput")
+class StockLedgerThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerThroughputTest.class);
+
+    private static final int INITIAL_STOCK = 10_000;
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 100;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private SalesTransactionRepository salesTransactionRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesBatchRepository salesBatchRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private InventorySnapshotCache inventorySnapshotCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Store store;
+    private Product ledgerProduct;
+    private Product databaseProduct;
+
+    @BeforeEach
+    void setUpInventory() {
+        store = new Store();
+        store.setName("Ledger Store");
+        store.setLocation("Ledger Street");
+        store.setContactNumber("5550003");
+        store = storeRepository.save(store);
+
+        ledgerProduct = stockedProduct("Ledger SKU");
+        databaseProduct = stockedProduct("Database SKU");
+    }
+
+    @AfterEach
+    void removeInventory() {
+        jdbcTemplate.update("DELETE FROM reorder_recommendations WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM daily_sales_rollups WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM sales_transactions WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM inventory WHERE store_id = ?", store.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE id IN (?, ?)", ledgerProduct.getId(), databaseProduct.getId());
+        jdbcTemplate.update("DELETE FROM stores WHERE id = ?", store.getId());
+    }
+
+    @Test
+    @DisplayName("Ledger sales should be written back exactly and report their throughput against the database path")
+    void ledgerShouldMatchDatabaseResultsAndReportThroughput() throws Exception {
+        int sales = THREADS * SALES_PER_THREAD;
+
+        // Same service wired without the ledger, run in a transaction like the proxied bean
+        StockLedger noLedger = new StockLedger(stockLedgerRepository, inventoryRepository, inventorySnapshotCache,
+                new SimpleMeterRegistry(), false, StockLedger.Durability.BATCHED);
+        SalesService databaseSalesService = new SalesService(salesTransactionRepository, inventoryRepository,
+                productRepository, storeRepository, salesRollupService, eventPublisher, salesBatchRepository,
+                noLedger, referenceDataCache, 5000, 1000);
+        SalesTransactionRequest databaseSale = new SalesTransactionRequest(
+                databaseProduct.getId(), store.getId(), 1, new BigDecimal("1.00"));
+        long databaseNanos = timeConcurrentSales(
+                () -> transactionTemplate.execute(status -> databaseSalesService.recordSale(databaseSale)));
+
+        SalesTransactionRequest ledgerSale = new SalesTransactionRequest(
+                ledgerProduct.getId(), store.getId(), 1, new BigDecimal("1.00"));
+        long ledgerNanos = timeConcurrentSales(() -> salesService.recordSale(ledgerSale));
+        stockLedger.flush();
+
+        assertEquals(INITIAL_STOCK - sales, storedStock(databaseProduct));
+        assertEquals(INITIAL_STOCK - sales, storedStock(ledgerProduct));
+        assertEquals(INITIAL_STOCK - sales, stockLedger.available(store.getId(), ledgerProduct.getId()).orElseThrow());
+        assertEquals(0, stockLedger.dirtyCount());
+
+        // Timings depend on the machine, so they are reported rather than asserted
+        log.info("{} sales of one SKU on {} threads: database path {} sales/s, stock ledger {} sales/s",
+                sales, THREADS, salesPerSecond(sales, databaseNanos), salesPerSecond(sales, ledgerNanos));
+    }
+
+    @Test
+    @DisplayName("Batch sales should not take stock already sold through the ledger but not yet written back")
+    void batchSalesShouldNotOversellBufferedLedgerSales() {
+        Long productId = ledgerProduct.getId();
+        // leaves 5 units in the ledger while the row may still hold all of them
+        salesService.recordSale(new SalesTransactionRequest(productId, store.getId(), INITIAL_STOCK - 5,
+                new BigDecimal("1.00")));
+
+        SalesBatchResponse batch = salesService.recordSales(List.of(
+                new SalesTransactionRequest(productId, store.getId(), 3, new BigDecimal("1.00")),
+                new SalesTransactionRequest(productId, store.getId(), 3, new BigDecimal("1.00"))));
+
+        assertTrue(batch.results().get(0).success());
+        assertFalse(batch.results().get(1).success());
+        assertEquals(2, stockLedger.available(store.getId(), productId).orElseThrow());
+        salesService.recordSale(new SalesTransactionRequest(productId, store.getId(), 2, new BigDecimal("1.00")));
+        assertEquals(0, stockLedger.available(store.getId(), productId).orElseThrow());
+
+        stockLedger.flush();
+        assertEquals(0, storedStock(ledgerProduct));
+    }
+
+    private Product stockedProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setUnitPrice(new BigDecimal("1.00"));
+        product = productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setStore(store);
+        inventory.setProduct(product);
+        inventory.setCurrentStock(INITIAL_STOCK);
+        inventoryRepository.save(inventory);
+        return product;
+    }
+
+    private long timeConcurrentSales(Runnable sale) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    startGate.await();
+                    for (int i = 0; i < SALES_PER_THREAD; i++) {
+                        sale.run();
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int storedStock(Product product) {
+        return inventoryRepository.findCurrentStock(store.getId(), product.getId()).orElseThrow();
+    }
+
+    private static long salesPerSecond(int sales, long nanos) {
+        return sales * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.fidenz.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedTtlCache<String, Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BoundedTtlCache<>("test", 2, Duration.ofSeconds(10), meterRegistry, now::get);
+    }
+
+    @Test
+    void get_LoadsOnceAndCountsHitsAndMisses() {
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(1, cache.get("a", this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_ReloadsAfterTtl() {
+        cache.get("a", this::load);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals(2, cache.get("a", this::load));
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedBeyondMaxSize() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(4, cache.get("b", this::load));
+    }
+
+    @Test
+    void invalidateIf_RemovesMatchingKeys() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        cache.invalidateIf("a"::equals);
+
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.get("a", this::load));
+    }
+
+    @Test
+    void get_DoesNotStoreValueLoadedDuringInvalidation() {
+        assertEquals(1, cache.get("a", key -> {
+            cache.invalidate(key);
+            return load(key);
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get("a", this::load));
+    }
+
+    @Test
+    void get_KeepsValueLoadedDuringInvalidationOfAnotherKey() {
+        assertEquals(1, cache.get("a", key -> {
+            cache.invalidate("b");
+            return load(key);
+        }));
+
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ConcurrentMissesOnOneKeyShareOneLoad() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            Thread thread = new Thread(() -> {
+                Integer value = cache.get("a", key -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return load(key);
+                });
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // every caller is parked: one in the loader, the rest waiting for its result
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not all reach the cache");
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(1, 1, 1, 1, 1, 1, 1, 1), results);
+        // the callers that waited for the load did not find a value either
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").counter().count());
+        assertEquals(8.0, meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "miss").counter().count());
+    }
+
+    private Integer load(String key) {
+        return loads.incrementAndGet();
+    }
+}
@@ -30,3 +30,13 @@ INSERT INTO inventory (id, store_id, product_id, current_stock, created_at, upda
 INSERT INTO reorder_recommendations (id, store_id, product_id, current_stock, average_daily_sales, seasonality_factor, lead_time, safety_stock, reorder_point, recommended_qty, is_processed, created_at, updated_at) VALUES
 (1, 1, 1, 45, 2.5, 1.2, 7, 10, 15, 50, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
 (2, 1, 2, 25, 1.8, 1.0, 5, 5, 12, 30, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+-- Keep generated ids clear of the fixed ids above for rows created by tests
+-- next_val is the upper end of the next id block of 50 (ids 1000 to 1049), so ids start at 1000
+INSERT INTO id_allocations (sequence_name, next_val) VALUES
+('users', 1049),
+('stores', 1049),
+('products', 1049),
+('inventory', 1049),
+('sales_transactions', 1049),
+('reorder_recommendations', 1049);
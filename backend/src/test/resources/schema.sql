@@ -2,16 +2,24 @@
 -- This file will be automatically executed by Spring Boot during test initialization
 
 -- Drop tables if they exist (for clean state)
+DROP TABLE IF EXISTS daily_sales_rollups CASCADE;
 DROP TABLE IF EXISTS sales_transactions CASCADE;
 DROP TABLE IF EXISTS inventory CASCADE;
 DROP TABLE IF EXISTS reorder_recommendations CASCADE;
 DROP TABLE IF EXISTS products CASCADE;
 DROP TABLE IF EXISTS stores CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
+DROP TABLE IF EXISTS id_allocations CASCADE;
+
+-- Id blocks handed out to the entities, one row per table (see IdAllocation)
+CREATE TABLE id_allocations (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
 
 -- Create Users table
 CREATE TABLE users (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
     email VARCHAR(100) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
@@ -24,7 +32,7 @@ CREATE TABLE users (
 
 -- Create Stores table
 CREATE TABLE stores (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
     location VARCHAR(200) NOT NULL,
     contact_number VARCHAR(20) NOT NULL,
@@ -35,7 +43,7 @@ CREATE TABLE stores (
 
 -- Create Products table
 CREATE TABLE products (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
     description VARCHAR(500),
     category VARCHAR(50),
@@ -47,9 +55,11 @@ CREATE TABLE products (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+CREATE INDEX idx_products_category ON products(category);
+
 -- Create Inventory table
 CREATE TABLE inventory (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     store_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     current_stock INTEGER NOT NULL DEFAULT 0,
@@ -65,7 +75,7 @@ CREATE INDEX idx_inventory_store_id ON inventory(store_id);
 
 -- Create Sales Transactions table
 CREATE TABLE sales_transactions (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     store_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     quantity INTEGER NOT NULL,
@@ -81,11 +91,26 @@ CREATE TABLE sales_transactions (
 -- Indexes for sales_transactions
 CREATE INDEX idx_sales_transactions_store_id ON sales_transactions(store_id);
 CREATE INDEX idx_sales_transactions_product_id ON sales_transactions(product_id);
-CREATE INDEX idx_sales_transactions_store_date ON sales_transactions(store_id, transaction_date);
+CREATE INDEX idx_sales_transactions_store_date_id ON sales_transactions(store_id, transaction_date, id);
+
+-- Create Daily Sales Rollups table
+CREATE TABLE daily_sales_rollups (
+    store_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    sales_date DATE NOT NULL,
+    quantity BIGINT NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    weekday BOOLEAN NOT NULL,
+    PRIMARY KEY (store_id, product_id, sales_date)
+);
+
+-- Indexes for daily_sales_rollups
+CREATE INDEX idx_rollup_store_date ON daily_sales_rollups(store_id, sales_date);
 
 -- Create Reorder Recommendations table
 CREATE TABLE reorder_recommendations (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     store_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     current_stock INTEGER NOT NULL,
@@ -99,6 +124,7 @@ CREATE TABLE reorder_recommendations (
     is_processed BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_reorder_product_store UNIQUE (product_id, store_id),
     FOREIGN KEY (store_id) REFERENCES stores(id),
     FOREIGN KEY (product_id) REFERENCES products(id)
 );